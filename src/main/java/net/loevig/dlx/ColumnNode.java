@@ -4,10 +4,13 @@ package net.loevig.dlx;
  * ColumnNode represents a node in the first row. A ColumnNode contains
  * a size indicating the number of downwards links until the column node
  * is reached again.
+ * <p>
+ * A secondary column is not linked into the first row, so Algorithm X never
+ * selects it. It may be covered at most once, but does not have to be.
  *
  * @author Anders Løvig
  */
-class ColumnNode<E> extends Node<E> {
+class ColumnNode extends Node {
 
     /**
      * The number of nodes in the column linked list excluding this node.
@@ -17,16 +20,39 @@ class ColumnNode<E> extends Node<E> {
     /**
      * Direct link to the root node. Used for optimizing Algorithm X.
      */
-    protected ColumnNode<E> root;
+    protected ColumnNode root;
+
+    /**
+     * Whether this is a secondary column.
+     */
+    protected final boolean secondary;
+
+    /**
+     * The index of this column in the structure, or {@code -1} for the
+     * root node.
+     */
+    protected int index = -1;
+
+    /**
+     * Create a new ColumnNode. The new node have size 0 and is its own
+     * next and previous node.
+     *
+     * @param root the root node.
+     */
+    public ColumnNode(ColumnNode root) {
+        this(root, false);
+    }
 
     /**
      * Create a new ColumnNode. The new node have size 0 and is its own
      * next and previous node.
      *
      * @param root the root node.
+     * @param secondary whether the column is secondary.
      */
-    public ColumnNode(ColumnNode<E> root) {
-        super(null, null);
+    public ColumnNode(ColumnNode root, boolean secondary) {
+        super(null);
+        this.secondary = secondary;
         super.column = this;
 
         this.root = root;
@@ -36,8 +62,18 @@ class ColumnNode<E> extends Node<E> {
         this.size = 0;
     }
 
+    /**
+     * Column nodes do not belong to a row.
+     *
+     * @return always {@code -1}.
+     */
     @Override
-    protected void insertRight(Node<E> node) {
+    protected int row() {
+        return -1;
+    }
+
+    @Override
+    protected void insertRight(Node node) {
         super.insertRight(node);
         root.size++;
     }
@@ -58,7 +94,9 @@ class ColumnNode<E> extends Node<E> {
             }
         }
 
-        this.root.size--;
+        if (!secondary) {
+            this.root.size--;
+        }
     }
 
     /**
@@ -66,7 +104,9 @@ class ColumnNode<E> extends Node<E> {
      * structure. All rows having nodes in this column are also reinserted.
      */
     protected void uncover() {
-        this.root.size++;
+        if (!secondary) {
+            this.root.size++;
+        }
 
         for (var i = this.up; i != this; i = i.up) {
             for (var j = i.left; j != i; j = j.left) {
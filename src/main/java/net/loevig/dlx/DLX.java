@@ -2,6 +2,13 @@ package net.loevig.dlx;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Implementation of {@link #solve(DancingLinks) Knuth's Algorithm X}.
@@ -10,6 +17,12 @@ import java.util.List;
  */
 public class DLX {
 
+    /**
+     * The number of rows tried in the shortest runs of the default
+     * restart policy.
+     */
+    private static final long DEFAULT_RESTART_SCALE = 100;
+
     /**
      * Solve an exact cover problem represented in the given dancing links
      * structure. This method reteurns all possible solutions to the problem.
@@ -19,17 +32,18 @@ public class DLX {
      */
     public static <E> List<Solution<E>> solve(DancingLinks<E> dl) {
         var solutions = new ArrayList<Solution<E>>();
-        var partialSolution =  new ArrayList<Node<E>>();
+        var partialSolution =  new ArrayList<Node>();
 
-        solve(dl.root, solutions, partialSolution);
+        solve(dl, solutions, partialSolution);
 
         return solutions;
     }
 
-    private static <E> void solve(ColumnNode<E> root, List<Solution<E>> solutions, List<Node<E>> partialSolution) {
+    private static <E> void solve(DancingLinks<E> dl, List<Solution<E>> solutions, List<Node> partialSolution) {
+        var root = dl.root;
         if (root.right == root) {
             // We got an solution!!!
-            solutions.add(new Solution<>(partialSolution));
+            solutions.add(new Solution<>(dl, partialSolution));
         }
         else {
             // Select a column with minimal size and remove it.
@@ -41,20 +55,16 @@ public class DLX {
                 partialSolution.add(r);
 
                 // Remove all columns with a node in current row.
-                for (var j = r.right; j != r; j = j.right) {
-                    j.column.cover();
-                }
+                select(r);
 
                 // Repeat until we have removed all columns
-                solve(root, solutions, partialSolution);
+                solve(dl, solutions, partialSolution);
 
                 // Remove this row node to try another combination of rows.
                 partialSolution.remove(partialSolution.size() - 1);
 
                 // Uncover all columns with a node in current row.
-                for (var j = r.left; j != r; j = j.left) {
-                    j.column.uncover();
-                }
+                unselect(r);
             }
 
             // Reinsert the column.
@@ -62,16 +72,401 @@ public class DLX {
         }
     }
 
+    /**
+     * Count the solutions to the exact cover problem represented in the given
+     * dancing links structure, without creating the solutions.
+     *
+     * @param dl the exact cover problem.
+     * @return the number of solutions.
+     */
+    public static long count(DancingLinks<?> dl) {
+        return count(dl.root);
+    }
+
+    private static long count(ColumnNode root) {
+        if (root.right == root) {
+            return 1;
+        }
+
+        var c = selectColumn(root);
+        c.cover();
+
+        long count = 0;
+        for (var r = c.down; r != c; r = r.down) {
+            select(r);
+
+            count += count(root);
+
+            unselect(r);
+        }
+
+        c.uncover();
+        return count;
+    }
+
+    /**
+     * Find a solution with minimal cost to the exact cover problem represented
+     * in the given dancing links structure. The cost of a solution is the sum
+     * of the {@link DancingLinks#setCost(int, double) costs} of its rows.
+     *
+     * @param dl the exact cover problem.
+     * @return a solution with minimal cost, or an empty optional if the
+     *         problem has no solutions.
+     * @see #minimize(DancingLinks, Consumer)
+     */
+    public static <E> Optional<Solution<E>> minimize(DancingLinks<E> dl) {
+        return minimize(dl, solution -> {});
+    }
+
+    /**
+     * Find a solution with minimal cost to the exact cover problem represented
+     * in the given dancing links structure. The cost of a solution is the sum
+     * of the {@link DancingLinks#setCost(int, double) costs} of its rows.
+     * <p>
+     * The search is a branch-and-bound variant of Algorithm X. A subtree is
+     * pruned, when the cost of the partial solution plus a lower bound on the
+     * cost of covering the remaining columns is not less than the cost of the
+     * best solution found so far. Each time a cheaper solution is found, it is
+     * passed to {@code improved}, so callers can use intermediate results
+     * before the search completes.
+     *
+     * @param dl the exact cover problem.
+     * @param improved called with each solution cheaper than all previous.
+     * @return a solution with minimal cost, or an empty optional if the
+     *         problem has no solutions.
+     */
+    public static <E> Optional<Solution<E>> minimize(DancingLinks<E> dl, Consumer<Solution<E>> improved) {
+        var best = new Incumbent<>(improved);
+        var partialSolution = new ArrayList<Node>();
+
+        minimize(dl, best, partialSolution, 0);
+
+        return Optional.ofNullable(best.solution);
+    }
+
+    private static <E> void minimize(DancingLinks<E> dl, Incumbent<E> best, List<Node> partialSolution, double cost) {
+        var root = dl.root;
+        if (root.right == root) {
+            // Only cheaper solutions reach this point.
+            best.update(new Solution<>(dl, partialSolution));
+            return;
+        }
+        if (best.solution != null && cost + lowerBound(dl) >= best.cost) {
+            // This subtree cannot improve the best solution. Until a solution
+            // is found, the bound could only detect empty columns, which the
+            // search handles anyway.
+            return;
+        }
+
+        var c = selectColumn(root);
+        c.cover();
+
+        for (var r = c.down; r != c; r = r.down) {
+            var rowCost = cost + dl.costs[r.row()];
+            if (rowCost >= best.cost) {
+                continue;
+            }
+            partialSolution.add(r);
+
+            select(r);
+
+            minimize(dl, best, partialSolution, rowCost);
+
+            partialSolution.remove(partialSolution.size() - 1);
+
+            unselect(r);
+        }
+
+        c.uncover();
+    }
+
+    /**
+     * Returns a lower bound on the cost of covering the remaining columns.
+     * <p>
+     * A row covering {@code k} columns is charged {@code cost / k} per
+     * column. Every remaining column must be covered by exactly one of the
+     * remaining rows, so the sum over all columns of the cheapest charge
+     * in that column never exceeds the cost of any completion.
+     *
+     * @param dl the dancing links structure.
+     * @return a lower bound, or positive infinity if a column is empty.
+     */
+    private static double lowerBound(DancingLinks<?> dl) {
+        var root = dl.root;
+        var bound = 0.0;
+
+        for (var c = root.right; c != root; c = c.right) {
+            var min = Double.POSITIVE_INFINITY;
+            for (var r = c.down; r != c; r = r.down) {
+                var row = r.row();
+                min = Math.min(min, dl.costs[row] / dl.lengths[row]);
+            }
+            bound += min;
+        }
+
+        return bound;
+    }
+
+    /**
+     * The best solution found so far by {@link #minimize(DancingLinks, Consumer)}.
+     */
+    private static class Incumbent<E> {
+
+        private final Consumer<Solution<E>> improved;
+
+        private Solution<E> solution;
+
+        private double cost = Double.POSITIVE_INFINITY;
+
+        private Incumbent(Consumer<Solution<E>> improved) {
+            this.improved = improved;
+        }
+
+        private void update(Solution<E> solution) {
+            this.solution = solution;
+            this.cost = solution.getCost();
+            improved.accept(solution);
+        }
+    }
+
+    /**
+     * Find any solution to the exact cover problem represented in the given
+     * dancing links structure, using a randomized search with restarts
+     * following the {@link RestartPolicy#luby(long) Luby sequence}.
+     *
+     * @param dl the exact cover problem.
+     * @param seed the seed of the random number generator.
+     * @return a solution, or an empty optional if the problem has no solutions.
+     * @see #findAny(DancingLinks, long, RestartPolicy)
+     */
+    public static <E> Optional<Solution<E>> findAny(DancingLinks<E> dl, long seed) {
+        return findAny(dl, seed, RestartPolicy.luby(DEFAULT_RESTART_SCALE));
+    }
+
+    /**
+     * Find any solution to the exact cover problem represented in the given
+     * dancing links structure, using a randomized search with restarts.
+     * <p>
+     * Each run breaks ties between columns of minimal size at random, and
+     * tries the rows of each column in a random order. When a run has tried
+     * the number of rows allowed by {@code policy}, it is abandoned and a new
+     * run is started. This avoids getting stuck in a large subtree without
+     * solutions, due to a few unlucky early choices. A run which completes
+     * without finding a solution proves that there are no solutions.
+     * <p>
+     * The search is deterministic for a given {@code seed} and {@code policy}.
+     *
+     * @param dl the exact cover problem.
+     * @param seed the seed of the random number generator.
+     * @param policy the restart policy.
+     * @return a solution, or an empty optional if the problem has no solutions.
+     */
+    public static <E> Optional<Solution<E>> findAny(DancingLinks<E> dl, long seed, RestartPolicy policy) {
+        return new RandomizedSearch<>(dl, seed, policy, new AtomicBoolean()).call();
+    }
+
+    /**
+     * Find any solution to the exact cover problem represented in the given
+     * dancing links structure, by running a portfolio of
+     * {@link #findAny(DancingLinks, long, RestartPolicy) randomized searches}
+     * in parallel. Search {@code i} uses a copy of {@code dl} and the seed
+     * {@code seed + i}. The result of the first search to complete is
+     * returned, and the other searches are stopped.
+     *
+     * @param dl the exact cover problem.
+     * @param seed the seed of the first search.
+     * @param policy the restart policy of each search.
+     * @param threads the number of parallel searches.
+     * @return a solution, or an empty optional if the problem has no solutions.
+     * @throws InterruptedException if interrupted while waiting for a result.
+     */
+    public static <E> Optional<Solution<E>> findAny(DancingLinks<E> dl, long seed, RestartPolicy policy, int threads)
+            throws InterruptedException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+
+        var stopped = new AtomicBoolean();
+        var searches = new ArrayList<Callable<Optional<Solution<E>>>>(threads);
+        for (int i = 0; i < threads; i++) {
+            searches.add(new RandomizedSearch<>(dl.copy(), seed + i, policy, stopped));
+        }
+
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            return executor.invokeAny(searches);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        finally {
+            stopped.set(true);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A randomized search with restarts. See
+     * {@link #findAny(DancingLinks, long, RestartPolicy)}.
+     */
+    private static class RandomizedSearch<E> implements Callable<Optional<Solution<E>>> {
+
+        private final DancingLinks<E> dl;
+
+        private final Random random;
+
+        private final RestartPolicy policy;
+
+        /**
+         * Set when the result of this search is no longer needed.
+         */
+        private final AtomicBoolean stopped;
+
+        private final List<Node> partialSolution = new ArrayList<>();
+
+        private Solution<E> solution;
+
+        /**
+         * The number of rows the current run may still try.
+         */
+        private long remaining;
+
+        private RandomizedSearch(DancingLinks<E> dl, long seed, RestartPolicy policy, AtomicBoolean stopped) {
+            this.dl = dl;
+            this.random = new Random(seed);
+            this.policy = policy;
+            this.stopped = stopped;
+        }
+
+        @Override
+        public Optional<Solution<E>> call() {
+            for (int run = 0; !stopped.get(); run++) {
+                remaining = policy.limit(run);
+                if (!search() || solution != null) {
+                    // The run either found a solution or searched everything.
+                    return Optional.ofNullable(solution);
+                }
+            }
+            return Optional.empty();
+        }
+
+        /**
+         * Search for a solution. The structure is always restored before
+         * returning.
+         *
+         * @return {@code true} if the run was aborted or found a solution.
+         */
+        private boolean search() {
+            var root = dl.root;
+            if (root.right == root) {
+                solution = new Solution<>(dl, partialSolution);
+                return true;
+            }
+
+            var c = selectColumn(root, random);
+            c.cover();
+
+            // Try the rows of the column in random order.
+            var rows = new Node[c.size];
+            var i = 0;
+            for (var r = c.down; r != c; r = r.down) {
+                var j = random.nextInt(i + 1);
+                rows[i++] = rows[j];
+                rows[j] = r;
+            }
+
+            var stop = false;
+            for (var r : rows) {
+                if (remaining-- <= 0 || stopped.get()) {
+                    stop = true;
+                    break;
+                }
+                partialSolution.add(r);
+
+                select(r);
+
+                stop = search();
+
+                partialSolution.remove(partialSolution.size() - 1);
+
+                unselect(r);
+
+                if (stop) {
+                    break;
+                }
+            }
+
+            c.uncover();
+            return stop;
+        }
+    }
+
+    /**
+     * Returns a column with a minimal size, chosen uniformly at random
+     * among all columns with a minimal size.
+     *
+     * @param root the root node.
+     * @param random the random number generator.
+     * @return a column node with minimal size.
+     */
+    private static ColumnNode selectColumn(ColumnNode root, Random random) {
+        var node = (ColumnNode) root.right;
+        var ties = 1;
+
+        for (var n = (ColumnNode) node.right; n != root; n = (ColumnNode) n.right) {
+            if (n.size < node.size) {
+                node = n;
+                ties = 1;
+            }
+            else if (n.size == node.size && random.nextInt(++ties) == 0) {
+                // Reservoir sampling among columns of equal size.
+                node = n;
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Select the row of {@code r}, by covering the columns of all other
+     * nodes in the row. The column of {@code r} must already be covered.
+     *
+     * @param r a node in the row to select.
+     */
+    static void select(Node r) {
+        for (var j = r.right; j != r; j = j.right) {
+            j.column.cover();
+        }
+    }
+
+    /**
+     * Undo {@link #select(Node) select}, by uncovering the columns of all
+     * other nodes in the row of {@code r} in reverse order.
+     *
+     * @param r the node passed to {@link #select(Node) select}.
+     */
+    static void unselect(Node r) {
+        for (var j = r.left; j != r; j = j.left) {
+            j.column.uncover();
+        }
+    }
+
     /**
      * Returns the first row with a minimal size.
      *
      * @param root the root node.
      * @return a column node with minimal size.
      */
-    private static <E> ColumnNode<E> selectColumn(ColumnNode<E> root) {
-        var node = (ColumnNode<E>) root.right;
+    static ColumnNode selectColumn(ColumnNode root) {
+        var node = (ColumnNode) root.right;
 
-        for (var n = (ColumnNode<E>) node.right; n != root; n = (ColumnNode<E>) n.right) {
+        for (var n = (ColumnNode) node.right; n != root; n = (ColumnNode) n.right) {
             if (n.size < node.size) {
                 node = n;
             }
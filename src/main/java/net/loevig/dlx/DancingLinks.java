@@ -1,88 +1,434 @@
-package net.loevig.dlx;
-
-import java.util.ArrayList;
-
-/**
- * Implementation of the Dancing Links structure. This structure is used by
- * Knuth's Algorithm X, to find all solutions to exact cover problems.
- * <p>
- * The data structure is a matrix of nodes, where each row and column is a
- * circular double linked list. This allows for easy removal of nodes with
- * enables an efficient implementation of Algorithm X. Each node also stores
- * data of a generic type. This allows for easy decoding of solutions for the
- * exact cover problem.
- *
- * @author Anders Løvig
- * @see <a href="https://arxiv.org/abs/cs/0011047">Donald Knuth: Dancing Links</a>
- */
-public class DancingLinks<E> {
-
-    /**
-     * The first node in the data structure.
-     */
-    ColumnNode<E> root;
-
-    /**
-     * Creates a new DancingLinks structure from the given matrix of values.
-     * Each value in the matrix is represented as a node in the dancing links
-     * structure.
-     *
-     * If a value in {@code values} is {@code null}, then a node is not created
-     * for that index. Then the next and previous nodes will skip this row and
-     * column in the linked lists.
-     *
-     * The provided {@code values} must not be {@code null} and must not be the
-     * an empty array.
-     *
-     * @param values the values to base the dancing links structure on.
-     */
-    public DancingLinks(E[][] values) {
-        if (values.length == 0 || values[0].length == 0) {
-            // Cannot create links without elements.
-            throw new IllegalArgumentException("values is empty");
-        }
-
-        int colLength = values[0].length;
-
-        Node<E> prev = this.root = new ColumnNode<>(null);
-        var columns = new ArrayList<ColumnNode<E>>(colLength);
-
-        // Create column nodes and insert them to the right of root.
-        for (int col = 0; col < colLength; col++) {
-            var node = new ColumnNode<E>(root);
-            columns.add(node);
-            prev.insertRight(node);
-            prev = node;
-        }
-
-        // Now create rows and insert them
-        for (E[] row : values) {
-            prev = null;
-
-            for (int col = 0; col < colLength; col++) {
-                // Each row must have equal columns
-                if (row.length != colLength) {
-                    throw new IllegalArgumentException("rows must have equal length");
-                }
-                var val = row[col];
-                if (val == null) {
-                    continue;
-                }
-
-                var column = columns.get(col);
-                var node = new Node<>(column, val);
-
-                if (prev == null) {
-                    // node is the first in current row.
-                    prev = node;
-                }
-
-                column.up.insertDown(node);
-                prev.insertRight(node);
-                prev = node;
-            }
-        }
-    }
-
-
-}
+package net.loevig.dlx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implementation of the Dancing Links structure. This structure is used by
+ * Knuth's Algorithm X, to find all solutions to exact cover problems.
+ * <p>
+ * The data structure is a matrix of nodes, where each row and column is a
+ * circular double linked list. This allows for easy removal of nodes with
+ * enables an efficient implementation of Algorithm X. Each row of the matrix
+ * has a single payload of a generic type, which is stored once in a row
+ * table indexed by row. This allows for easy decoding of solutions for the
+ * exact cover problem.
+ *
+ * @author Anders Løvig
+ * @see <a href="https://arxiv.org/abs/cs/0011047">Donald Knuth: Dancing Links</a>
+ */
+public class DancingLinks<E> {
+
+    /**
+     * The first node in the data structure.
+     */
+    ColumnNode root;
+
+    /**
+     * The column nodes in their original order.
+     */
+    final ColumnNode[] columns;
+
+    /**
+     * The payload of each row, indexed by row.
+     */
+    final List<E> rows;
+
+    /**
+     * The first node of each row, indexed by row. Empty rows have no nodes.
+     */
+    final RowNode[] heads;
+
+    /**
+     * The number of nodes in each row, indexed by row.
+     */
+    final int[] lengths;
+
+    /**
+     * The cost of each row, indexed by row. Used by
+     * {@link DLX#minimize(DancingLinks) DLX.minimize}.
+     */
+    final double[] costs;
+
+    /**
+     * Creates a new DancingLinks structure from the given matrix and row
+     * payloads. Each {@code true} value in the matrix is represented as a
+     * node in the dancing links structure, and row {@code i} of the matrix
+     * is given the payload {@code rows.get(i)}.
+     *
+     * The provided {@code matrix} must not be {@code null} and must not be
+     * an empty array, and {@code rows} must have a payload for each row in
+     * {@code matrix}. Payloads may be {@code null}.
+     *
+     * @param matrix the incidence matrix to base the structure on.
+     * @param rows the payload of each row.
+     */
+    public DancingLinks(boolean[][] matrix, List<E> rows) {
+        if (matrix.length == 0 || matrix[0].length == 0) {
+            // Cannot create links without elements.
+            throw new IllegalArgumentException("matrix is empty");
+        }
+        if (matrix.length != rows.size()) {
+            throw new IllegalArgumentException("rows must have a payload for each row in matrix");
+        }
+
+        this.columns = createColumns(matrix[0].length, 0);
+        this.rows = new ArrayList<>(rows);
+        this.heads = new RowNode[matrix.length];
+        this.lengths = new int[matrix.length];
+        this.costs = new double[matrix.length];
+
+        for (int row = 0; row < matrix.length; row++) {
+            if (matrix[row].length != columns.length) {
+                throw new IllegalArgumentException("rows must have equal length");
+            }
+
+            Node prev = null;
+            for (int col = 0; col < columns.length; col++) {
+                if (matrix[row][col]) {
+                    prev = link(prev, col, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new DancingLinks structure from a sparse matrix. Row
+     * {@code i} has a node in each column listed in {@code matrix[i]}, and
+     * is given the payload {@code rows.get(i)}.
+     *
+     * The column indices of each row must be strictly increasing and less
+     * than {@code columns}, and {@code rows} must have a payload for each row
+     * in {@code matrix}. Payloads may be {@code null}.
+     *
+     * @param columns the number of columns.
+     * @param matrix the column indices of each row.
+     * @param rows the payload of each row.
+     */
+    public DancingLinks(int columns, int[][] matrix, List<E> rows) {
+        this(columns, 0, matrix, rows);
+    }
+
+    /**
+     * Creates a new DancingLinks structure from a sparse matrix with
+     * secondary columns. The first {@code primary} columns must be covered
+     * exactly once by a solution, while the following {@code secondary}
+     * columns must be covered at most once. Row {@code i} has a node in each
+     * column listed in {@code matrix[i]}, and is given the payload
+     * {@code rows.get(i)}.
+     *
+     * The column indices of each row must be strictly increasing and less
+     * than {@code primary + secondary}, and {@code rows} must have a payload
+     * for each row in {@code matrix}. Payloads may be {@code null}.
+     *
+     * @param primary the number of primary columns.
+     * @param secondary the number of secondary columns.
+     * @param matrix the column indices of each row.
+     * @param rows the payload of each row.
+     */
+    public DancingLinks(int primary, int secondary, int[][] matrix, List<E> rows) {
+        if (primary <= 0 || secondary < 0) {
+            // Cannot create links without elements.
+            throw new IllegalArgumentException("primary must be positive and secondary not negative");
+        }
+        if (matrix.length != rows.size()) {
+            throw new IllegalArgumentException("rows must have a payload for each row in matrix");
+        }
+
+        var columns = primary + secondary;
+        this.columns = createColumns(primary, secondary);
+        this.rows = new ArrayList<>(rows);
+        this.heads = new RowNode[matrix.length];
+        this.lengths = new int[matrix.length];
+        this.costs = new double[matrix.length];
+
+        for (int row = 0; row < matrix.length; row++) {
+            Node prev = null;
+            var last = -1;
+            for (int col : matrix[row]) {
+                if (col <= last || col >= columns) {
+                    throw new IllegalArgumentException("column indices must be increasing and less than columns");
+                }
+                prev = link(prev, col, row);
+                last = col;
+            }
+        }
+    }
+
+    /**
+     * Creates a new DancingLinks structure from the given matrix of values.
+     * Each value in the matrix is represented as a node in the dancing links
+     * structure.
+     *
+     * If a value in {@code values} is {@code null}, then a node is not created
+     * for that index. Then the next and previous nodes will skip this row and
+     * column in the linked lists.
+     *
+     * The payload of each row is the first non-null value in that row, or
+     * {@code null} if the row is empty. Other values in the row are only used
+     * to decide which nodes to create.
+     *
+     * The provided {@code values} must not be {@code null} and must not be the
+     * an empty array.
+     *
+     * @param values the values to base the dancing links structure on.
+     */
+    public DancingLinks(E[][] values) {
+        if (values.length == 0 || values[0].length == 0) {
+            // Cannot create links without elements.
+            throw new IllegalArgumentException("values is empty");
+        }
+
+        this.columns = createColumns(values[0].length, 0);
+        this.rows = new ArrayList<>(values.length);
+        this.heads = new RowNode[values.length];
+        this.lengths = new int[values.length];
+        this.costs = new double[values.length];
+
+        // Now create rows and insert them
+        for (int row = 0; row < values.length; row++) {
+            // Each row must have equal columns
+            if (values[row].length != columns.length) {
+                throw new IllegalArgumentException("rows must have equal length");
+            }
+
+            Node prev = null;
+            E payload = null;
+            for (int col = 0; col < columns.length; col++) {
+                var val = values[row][col];
+                if (val == null) {
+                    continue;
+                }
+                if (prev == null) {
+                    payload = val;
+                }
+                prev = link(prev, col, row);
+            }
+            this.rows.add(payload);
+        }
+    }
+
+    /**
+     * Creates a copy of {@code other} with the same rows, columns, payloads
+     * and costs. The payloads themselves are not copied.
+     *
+     * @param other the structure to copy.
+     */
+    private DancingLinks(DancingLinks<E> other) {
+        this.columns = createColumns(other.columns.length - other.secondaryCount(), other.secondaryCount());
+        this.rows = other.rows;
+        this.heads = new RowNode[other.lengths.length];
+        this.lengths = new int[other.lengths.length];
+        this.costs = other.costs.clone();
+
+        // Link rows from top to bottom, so each column keeps its order.
+        for (int row = 0; row < heads.length; row++) {
+            var head = other.heads[row];
+            if (head == null) {
+                continue;
+            }
+            Node prev = null;
+            var n = (Node) head;
+            do {
+                prev = link(prev, n.column.index, row);
+                n = n.right;
+            } while (n != head);
+        }
+    }
+
+    /**
+     * Returns a copy of this structure, which can be searched independently
+     * of this structure, for example from another thread.
+     *
+     * This method must not be called while a search on this structure is in
+     * progress, since covered rows would be missing from the copy.
+     *
+     * @return a copy of this structure.
+     */
+    public DancingLinks<E> copy() {
+        return new DancingLinks<>(this);
+    }
+
+    /**
+     * Returns the payload of the given row.
+     *
+     * @param row the row index.
+     * @return the payload of the row.
+     */
+    public E get(int row) {
+        return rows.get(row);
+    }
+
+    /**
+     * Returns the cost of the given row. Rows have cost 0 unless another
+     * cost is set with {@link #setCost(int, double)}.
+     *
+     * @param row the row index.
+     * @return the cost of the row.
+     */
+    public double getCost(int row) {
+        return costs[row];
+    }
+
+    /**
+     * Sets the cost of the given row. The cost of a solution is the sum of
+     * the costs of its rows.
+     *
+     * The cost must be a finite, non-negative number, since
+     * {@link DLX#minimize(DancingLinks) DLX.minimize} relies on the cost of
+     * a partial solution never decreasing.
+     *
+     * @param row the row index.
+     * @param cost the cost of the row.
+     */
+    public void setCost(int row, double cost) {
+        if (!(cost >= 0) || Double.isInfinite(cost)) {
+            throw new IllegalArgumentException("cost must be finite and non-negative");
+        }
+        costs[row] = cost;
+    }
+
+    /**
+     * Returns the number of rows in this structure.
+     *
+     * @return the number of rows.
+     */
+    public int rowCount() {
+        return rows.size();
+    }
+
+    /**
+     * Returns the number of columns in this structure, including secondary
+     * columns.
+     *
+     * @return the number of columns.
+     */
+    public int columnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Returns the number of secondary columns in this structure. Secondary
+     * columns are always the last columns.
+     *
+     * @return the number of secondary columns.
+     */
+    public int secondaryCount() {
+        int count = 0;
+        for (int col = columns.length - 1; col >= 0 && columns[col].secondary; col--) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of nodes in this structure, including the root and
+     * column nodes.
+     *
+     * @return the number of nodes.
+     */
+    long nodeCount() {
+        long count = 1 + columns.length;
+        for (int length : lengths) {
+            count += length;
+        }
+        return count;
+    }
+
+    /**
+     * Creates the root node and {@code primary} column nodes to the right of
+     * it, followed by {@code secondary} column nodes which are not linked to
+     * the root.
+     *
+     * @param primary the number of primary columns.
+     * @param secondary the number of secondary columns.
+     * @return the column nodes in order.
+     */
+    private ColumnNode[] createColumns(int primary, int secondary) {
+        Node prev = this.root = new ColumnNode(null);
+        var columns = new ColumnNode[primary + secondary];
+
+        // Create column nodes and insert them to the right of root.
+        for (int col = 0; col < primary; col++) {
+            var node = new ColumnNode(root);
+            node.index = col;
+            columns[col] = node;
+            prev.insertRight(node);
+            prev = node;
+        }
+
+        // Secondary columns are their own next and previous column.
+        for (int col = primary; col < columns.length; col++) {
+            columns[col] = new ColumnNode(root, true);
+            columns[col].index = col;
+        }
+
+        return columns;
+    }
+
+    /**
+     * Creates a node in the given row and column, and inserts it at the
+     * bottom of the column and to the right of {@code prev}.
+     *
+     * @param prev the previous node in the row, or {@code null} if the new
+     *             node is the first node in the row.
+     * @param col the column index.
+     * @param row the row index.
+     * @return the new node.
+     */
+    private Node link(Node prev, int col, int row) {
+        var column = columns[col];
+        Node node;
+        if (prev != null) {
+            node = new Node(column);
+            prev.insertRight(node);
+        }
+        else {
+            // The first node of a row stores the row index.
+            node = heads[row] = new RowNode(column, row);
+        }
+
+        column.up.insertDown(node);
+        lengths[row]++;
+
+        return node;
+    }
+
+    /**
+     * Returns the column indices of each row, in the same format as
+     * accepted by {@link #DancingLinks(int, int[][], List)}.
+     *
+     * This method must not be called while a search on this structure is in
+     * progress, since covered rows would be missing.
+     *
+     * @return the column indices of each row.
+     */
+    int[][] toSparse() {
+        var matrix = new int[rows.size()][];
+        for (int row = 0; row < matrix.length; row++) {
+            matrix[row] = new int[lengths[row]];
+            Node n = heads[row];
+            for (int i = 0; i < matrix[row].length; i++, n = n.right) {
+                matrix[row][i] = n.column.index;
+            }
+        }
+
+        return matrix;
+    }
+
+    /**
+     * Returns the payloads of the given rows.
+     *
+     * @param rows the row indices.
+     * @return the payloads in the same order as {@code rows}.
+     */
+    List<E> payloads(int[] rows) {
+        @SuppressWarnings("unchecked")
+        var values = (E[]) new Object[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            values[i] = this.rows.get(rows[i]);
+        }
+        return Arrays.asList(values);
+    }
+}
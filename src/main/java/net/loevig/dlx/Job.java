@@ -0,0 +1,97 @@
+package net.loevig.dlx;
+
+import java.util.Arrays;
+
+/**
+ * Job represents an independent part of the search for solutions to an
+ * exact cover problem. A job is identified by the prefix of rows, which
+ * every solution found by the job starts with. See {@link Partition}.
+ * <p>
+ * A job is written as a single line of text with the job id followed by
+ * the row indices of the prefix, separated by spaces.
+ *
+ * @author Anders Løvig
+ */
+public final class Job {
+
+    /**
+     * The id of this job, unique within a partition.
+     */
+    private final int id;
+
+    /**
+     * The row indices of the prefix of this job.
+     */
+    private final int[] prefix;
+
+    /**
+     * Create a new job. The prefix is copied, so subsequent modifications
+     * of {@code prefix} will not change the new job.
+     *
+     * @param id the id of the job.
+     * @param prefix the row indices of the prefix.
+     */
+    public Job(int id, int[] prefix) {
+        this.id = id;
+        this.prefix = prefix.clone();
+    }
+
+    /**
+     * Parse a job from a line written by {@link #toString()}.
+     *
+     * @param line the line to parse.
+     * @return the job.
+     * @throws IllegalArgumentException if the line is not a valid job.
+     */
+    public static Job parse(String line) {
+        var values = Partition.parseInts(line);
+        if (values.length == 0) {
+            throw new IllegalArgumentException("job must have an id");
+        }
+        return new Job(values[0], Arrays.copyOfRange(values, 1, values.length));
+    }
+
+    /**
+     * Returns the id of this job.
+     *
+     * @return the id of this job.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the row indices of the prefix of this job.
+     *
+     * @return a copy of the prefix.
+     */
+    public int[] getPrefix() {
+        return prefix.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Job)) {
+            return false;
+        }
+        var job = (Job) o;
+        return id == job.id && Arrays.equals(prefix, job.prefix);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * id + Arrays.hashCode(prefix);
+    }
+
+    @Override
+    public String toString() {
+        var sb = new StringBuilder().append(id);
+        for (int row : prefix) {
+            sb.append(' ').append(row);
+        }
+        return sb.toString();
+    }
+}
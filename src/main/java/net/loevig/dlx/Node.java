@@ -1,72 +1,67 @@
 package net.loevig.dlx;
 
 /**
- * Node represents a single value in the Dancing Links structure. Each node
+ * Node represents a single entry in the Dancing Links structure. Each node
  * links to the next and previous node in the row and column linked list.
+ * <p>
+ * Nodes do not carry any data themselves. The first node of each row is a
+ * {@link RowNode}, which holds the index of the row. The index is used to
+ * look up the row payload stored once in the {@link DancingLinks} row table.
  *
  * @author Anders Løvig
  */
-public class Node<E> {
-
-    /**
-     * The value contained in this node.
-     */
-    private E value;
+class Node {
 
     /**
      * The next node in the row linked list.
      */
-    protected Node<E> right;
+    protected Node right;
 
     /**
      * The previous node in the row linked list.
      */
-    protected Node<E> left;
+    protected Node left;
 
     /**
      * The next node in the column linked list.
      */
-    protected Node<E> down;
+    protected Node down;
 
     /**
      * The previous node in the column linked list.
      */
-    protected Node<E> up;
+    protected Node up;
 
     /**
      * Direct link to the first node in the column.
      * This link is used for optimizing Knuth's Algorithm X.
      */
-    protected ColumnNode<E> column;
+    protected ColumnNode column;
 
     /**
      * Creates a new Node. The new node is its own next and previous nodes
      * in its row and column linked list.
      * @param column the column node.
-     * @param value the node value.
      */
-    protected Node(ColumnNode<E> column, E value) {
+    protected Node(ColumnNode column) {
         this.right = this.left = this.down = this.up = this;
         this.column = column;
-        this.value = value;
-    }
-
-    /**
-     * Returns the value of this node.
-     *
-     * @return the value of this node.
-     */
-    public E get() {
-        return value;
     }
 
     /**
-     * Sets the value of this node.
+     * Returns the index of the row this node belongs to. The row is found
+     * by following the row linked list to the {@link RowNode} of the row.
+     * Rows are never unlinked horizontally, so this works at any time
+     * during a search.
      *
-     * @param value the value of this node.
+     * @return the row index.
      */
-    public void set(E value) {
-        this.value = value;
+    protected int row() {
+        var node = this;
+        while (!(node instanceof RowNode)) {
+            node = node.left;
+        }
+        return ((RowNode) node).row;
     }
 
     /**
@@ -74,7 +69,7 @@ public class Node<E> {
      *
      * @param node the node to insert.
      */
-    protected void insertRight(Node<E> node) {
+    protected void insertRight(Node node) {
         node.right = this.right;
         node.right.left = node;
         node.left = this;
@@ -86,7 +81,7 @@ public class Node<E> {
      *
      * @param node the node to insert.
      */
-    protected void insertDown(Node<E> node) {
+    protected void insertDown(Node node) {
         node.down = this.down;
         node.down.up = node;
         node.up = this;
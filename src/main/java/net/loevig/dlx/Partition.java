@@ -0,0 +1,481 @@
+package net.loevig.dlx;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Partitioning of the search for solutions to an exact cover problem into
+ * independent {@link Job jobs}, which can be solved by separate processes.
+ * <p>
+ * The search tree of Algorithm X is expanded to a given depth, and each
+ * node at that depth becomes a job with the rows chosen on the path to it
+ * as prefix. Since the subtrees of the jobs are disjoint, the solutions of
+ * the problem are exactly the union of the solutions of the jobs.
+ * <p>
+ * A partition is stored in a directory with the following files:
+ * <ul>
+ *     <li>{@code problem.txt}: the number of columns, rows and secondary
+ *     columns, followed by the column indices of each row.</li>
+ *     <li>{@code jobs.txt}: one {@link Job} per line.</li>
+ *     <li>{@code results/<id>.txt}: the result of each solved job. The
+ *     first line is the number of solutions, optionally followed by the row
+ *     indices of each solution.</li>
+ * </ul>
+ * Result files are written atomically, so an interrupted run can be resumed
+ * by running the workers again. Jobs which already have a result are skipped.
+ * Preparing a directory again deletes its results.
+ * Row payloads are not written, since row indices are enough to decode the
+ * solutions with the original structure.
+ *
+ * @author Anders Løvig
+ */
+public class Partition {
+
+    static final String PROBLEM_FILE = "problem.txt";
+
+    static final String JOBS_FILE = "jobs.txt";
+
+    static final String RESULTS_DIR = "results";
+
+    /**
+     * Split the search into a job for each node at {@code depth} in the
+     * search tree. Solutions found above {@code depth} become jobs of their
+     * own, while branches without solutions above {@code depth} are dropped.
+     *
+     * @param dl the exact cover problem.
+     * @param depth the number of rows in the prefix of each job.
+     * @return the jobs, with ids in search order.
+     */
+    public static List<Job> split(DancingLinks<?> dl, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth must not be negative");
+        }
+
+        var jobs = new ArrayList<Job>();
+        split(dl.root, depth, new ArrayList<>(), jobs);
+
+        return jobs;
+    }
+
+    private static void split(ColumnNode root, int depth, List<Node> prefix, List<Job> jobs) {
+        if (depth == 0 || root.right == root) {
+            jobs.add(new Job(jobs.size(), prefix.stream().mapToInt(Node::row).toArray()));
+            return;
+        }
+
+        var c = DLX.selectColumn(root);
+        c.cover();
+
+        for (var r = c.down; r != c; r = r.down) {
+            prefix.add(r);
+
+            DLX.select(r);
+
+            split(root, depth - 1, prefix, jobs);
+
+            prefix.remove(prefix.size() - 1);
+
+            DLX.unselect(r);
+        }
+
+        c.uncover();
+    }
+
+    /**
+     * Split the search into at least {@code jobs} jobs, by using the smallest
+     * depth which gives enough jobs. Fewer jobs are returned, if the search
+     * tree cannot be split into {@code jobs} jobs.
+     *
+     * @param dl the exact cover problem.
+     * @param jobs the minimal number of jobs.
+     * @return the jobs, with ids in search order.
+     * @see #split(DancingLinks, int)
+     */
+    public static List<Job> splitInto(DancingLinks<?> dl, int jobs) {
+        if (jobs <= 0) {
+            throw new IllegalArgumentException("jobs must be positive");
+        }
+
+        // Count the jobs at each depth up to a limit, and double the limit
+        // until a depth has enough jobs, or the search tree is exhausted.
+        for (int limit = 1; ; limit = Math.min(2 * limit, dl.columnCount())) {
+            var nodes = new long[limit + 1];
+            var complete = new long[limit + 1];
+            countNodes(dl.root, 0, limit, nodes, complete);
+
+            long above = 0;
+            for (int depth = 0; depth <= limit; depth++) {
+                if (nodes[depth] + above >= jobs || nodes[depth] == complete[depth]) {
+                    // Either enough jobs, or no job can be expanded further.
+                    return split(dl, depth);
+                }
+                above += complete[depth];
+            }
+        }
+    }
+
+    /**
+     * Count the nodes of the search tree at each depth up to {@code limit}.
+     *
+     * @param root the root node.
+     * @param depth the depth of the current node.
+     * @param limit the maximal depth to count.
+     * @param nodes the number of nodes at each depth.
+     * @param complete the number of complete solutions at each depth.
+     */
+    private static void countNodes(ColumnNode root, int depth, int limit, long[] nodes, long[] complete) {
+        nodes[depth]++;
+        if (root.right == root) {
+            complete[depth]++;
+            return;
+        }
+        if (depth == limit) {
+            return;
+        }
+
+        var c = DLX.selectColumn(root);
+        c.cover();
+
+        for (var r = c.down; r != c; r = r.down) {
+            DLX.select(r);
+            countNodes(root, depth + 1, limit, nodes, complete);
+            DLX.unselect(r);
+        }
+
+        c.uncover();
+    }
+
+    /**
+     * Count the solutions of the given job.
+     *
+     * @param dl the exact cover problem.
+     * @param job the job.
+     * @return the number of solutions starting with the prefix of the job.
+     * @throws IllegalArgumentException if the prefix is not a partial solution.
+     */
+    public static long count(DancingLinks<?> dl, Job job) {
+        var prefix = job.getPrefix();
+        cover(dl, prefix);
+        try {
+            return DLX.count(dl);
+        }
+        finally {
+            uncover(dl, prefix);
+        }
+    }
+
+    /**
+     * Find all solutions of the given job.
+     *
+     * @param dl the exact cover problem.
+     * @param job the job.
+     * @return all solutions starting with the prefix of the job.
+     * @throws IllegalArgumentException if the prefix is not a partial solution.
+     */
+    public static <E> List<Solution<E>> solve(DancingLinks<E> dl, Job job) {
+        var prefix = job.getPrefix();
+        cover(dl, prefix);
+        try {
+            var solutions = new ArrayList<Solution<E>>();
+            for (var solution : DLX.solve(dl)) {
+                var rows = Arrays.copyOf(prefix, prefix.length + solution.size());
+                System.arraycopy(solution.getRows(), 0, rows, prefix.length, solution.size());
+                solutions.add(new Solution<>(dl, rows));
+            }
+            return solutions;
+        }
+        finally {
+            uncover(dl, prefix);
+        }
+    }
+
+    /**
+     * Cover the columns of each row in {@code prefix}, in order.
+     */
+    private static void cover(DancingLinks<?> dl, int[] prefix) {
+        var covered = new HashSet<ColumnNode>();
+        for (int i = 0; i < prefix.length; i++) {
+            var row = prefix[i];
+            if (row < 0 || row >= dl.rowCount() || dl.heads[row] == null) {
+                uncover(dl, Arrays.copyOf(prefix, i));
+                throw new IllegalArgumentException("row " + row + " is not a non-empty row");
+            }
+
+            Node head = dl.heads[row];
+            var j = head;
+            do {
+                if (!covered.add(j.column)) {
+                    // The column is covered by a previous row.
+                    uncover(dl, Arrays.copyOf(prefix, i));
+                    throw new IllegalArgumentException("row " + row + " conflicts with the prefix");
+                }
+                j = j.right;
+            } while (j != head);
+
+            head.column.cover();
+            DLX.select(head);
+        }
+    }
+
+    /**
+     * Uncover the columns of each row in {@code prefix}, in reverse order.
+     */
+    private static void uncover(DancingLinks<?> dl, int[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            Node head = dl.heads[prefix[i]];
+            DLX.unselect(head);
+            head.column.uncover();
+        }
+    }
+
+    /**
+     * Write the problem and the jobs to {@code dir}, so they can be solved
+     * by {@link #work(Path, boolean, int, int) workers}. The directory is
+     * created if it does not exist. Results of a previous partition in the
+     * directory are deleted, since job ids start from 0 again and the old
+     * results would be taken as results of the new jobs.
+     *
+     * @param dir the partition directory.
+     * @param dl the exact cover problem.
+     * @param jobs the jobs.
+     * @throws IOException if the files cannot be written.
+     */
+    public static void prepare(Path dir, DancingLinks<?> dl, List<Job> jobs) throws IOException {
+        var results = Files.createDirectories(dir.resolve(RESULTS_DIR));
+        try (var files = Files.newDirectoryStream(results)) {
+            for (var file : files) {
+                Files.delete(file);
+            }
+        }
+
+        var lines = new ArrayList<String>(dl.rowCount() + 1);
+        lines.add(dl.columnCount() + " " + dl.rowCount() + " " + dl.secondaryCount());
+        for (var row : dl.toSparse()) {
+            lines.add(formatInts(row));
+        }
+        Files.write(dir.resolve(PROBLEM_FILE), lines);
+
+        lines.clear();
+        for (var job : jobs) {
+            lines.add(job.toString());
+        }
+        Files.write(dir.resolve(JOBS_FILE), lines);
+    }
+
+    /**
+     * Read the problem written by {@link #prepare(Path, DancingLinks, List)}.
+     * The rows of the problem have no payloads.
+     *
+     * @param dir the partition directory.
+     * @return the exact cover problem.
+     * @throws IOException if the file cannot be read.
+     */
+    static DancingLinks<Void> readProblem(Path dir) throws IOException {
+        var lines = Files.readAllLines(dir.resolve(PROBLEM_FILE));
+        var header = parseInts(lines.get(0));
+
+        var matrix = new int[header[1]][];
+        for (int row = 0; row < matrix.length; row++) {
+            matrix[row] = parseInts(lines.get(row + 1));
+        }
+
+        var secondary = header.length > 2 ? header[2] : 0;
+        return new DancingLinks<>(header[0] - secondary, secondary, matrix, Collections.nCopies(matrix.length, null));
+    }
+
+    /**
+     * Read the jobs written by {@link #prepare(Path, DancingLinks, List)}.
+     *
+     * @param dir the partition directory.
+     * @return the jobs.
+     * @throws IOException if the file cannot be read.
+     */
+    public static List<Job> readJobs(Path dir) throws IOException {
+        var jobs = new ArrayList<Job>();
+        for (var line : Files.readAllLines(dir.resolve(JOBS_FILE))) {
+            jobs.add(Job.parse(line));
+        }
+        return jobs;
+    }
+
+    /**
+     * Solve the jobs assigned to one worker, and write their results. Worker
+     * {@code worker} of {@code workers} solves the jobs with
+     * {@code id % workers == worker}. Jobs which already have a result are
+     * skipped.
+     *
+     * @param dir the partition directory.
+     * @param solutions whether to write the solutions, or only their count.
+     * @param worker the index of this worker.
+     * @param workers the number of workers.
+     * @throws IOException if the files cannot be read or written.
+     */
+    public static void work(Path dir, boolean solutions, int worker, int workers) throws IOException {
+        if (worker < 0 || worker >= workers) {
+            throw new IllegalArgumentException("worker must be between 0 and workers");
+        }
+
+        var dl = readProblem(dir);
+        for (var job : readJobs(dir)) {
+            var result = resultFile(dir, job);
+            if (job.getId() % workers != worker || Files.exists(result)) {
+                continue;
+            }
+
+            var lines = new ArrayList<String>();
+            if (solutions) {
+                var found = solve(dl, job);
+                lines.add(Integer.toString(found.size()));
+                for (var solution : found) {
+                    lines.add(formatInts(solution.getRows()));
+                }
+            }
+            else {
+                lines.add(Long.toString(count(dl, job)));
+            }
+
+            // Write to a temporary file first, so a result is never partial.
+            var tmp = result.resolveSibling(job.getId() + ".tmp");
+            Files.write(tmp, lines);
+            Files.move(tmp, result, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Solve all jobs in {@code dir} with {@code workers} local worker
+     * processes, and wait for them to complete. Each worker runs
+     * {@link #main(String[])} in a new JVM with the class path of this JVM.
+     *
+     * @param dir the partition directory.
+     * @param solutions whether to write the solutions, or only their count.
+     * @param workers the number of worker processes.
+     * @throws IOException if a worker cannot be started or fails.
+     * @throws InterruptedException if interrupted while waiting for workers.
+     */
+    public static void run(Path dir, boolean solutions, int workers) throws IOException, InterruptedException {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive");
+        }
+
+        var java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        var processes = new ArrayList<Process>(workers);
+        try {
+            for (int worker = 0; worker < workers; worker++) {
+                processes.add(new ProcessBuilder(
+                        java, "-cp", System.getProperty("java.class.path"), Partition.class.getName(),
+                        dir.toString(), solutions ? "solutions" : "count",
+                        Integer.toString(worker), Integer.toString(workers))
+                        .inheritIO()
+                        .start());
+            }
+
+            for (int worker = 0; worker < workers; worker++) {
+                var status = processes.get(worker).waitFor();
+                if (status != 0) {
+                    throw new IOException("worker " + worker + " exited with status " + status);
+                }
+            }
+        }
+        finally {
+            for (var process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+    /**
+     * Sum the number of solutions of all jobs in {@code dir}.
+     *
+     * @param dir the partition directory.
+     * @return the number of solutions of the problem.
+     * @throws IOException if the result of a job is missing.
+     */
+    public static long mergeCount(Path dir) throws IOException {
+        long count = 0;
+        for (var job : readJobs(dir)) {
+            count += Long.parseLong(readResult(dir, job).get(0));
+        }
+        return count;
+    }
+
+    /**
+     * Collect the solutions of all jobs in {@code dir}, in job order. The
+     * jobs must have been solved with {@code solutions} enabled.
+     *
+     * @param dir the partition directory.
+     * @param dl the exact cover problem the partition was prepared from,
+     *           used to decode the row payloads.
+     * @return all solutions of the problem.
+     * @throws IOException if the result of a job is missing or incomplete.
+     */
+    public static <E> List<Solution<E>> mergeSolutions(Path dir, DancingLinks<E> dl) throws IOException {
+        var solutions = new ArrayList<Solution<E>>();
+        for (var job : readJobs(dir)) {
+            var lines = readResult(dir, job);
+            if (lines.size() != Integer.parseInt(lines.get(0)) + 1) {
+                throw new IOException("result of job " + job.getId() + " does not contain its solutions");
+            }
+            for (var line : lines.subList(1, lines.size())) {
+                solutions.add(new Solution<>(dl, parseInts(line)));
+            }
+        }
+        return solutions;
+    }
+
+    private static Path resultFile(Path dir, Job job) {
+        return dir.resolve(RESULTS_DIR).resolve(job.getId() + ".txt");
+    }
+
+    private static List<String> readResult(Path dir, Job job) throws IOException {
+        var result = resultFile(dir, job);
+        if (!Files.exists(result)) {
+            throw new IOException("missing result of job " + job.getId());
+        }
+        return Files.readAllLines(result);
+    }
+
+    static int[] parseInts(String line) {
+        line = line.strip();
+        if (line.isEmpty()) {
+            return new int[0];
+        }
+        return Arrays.stream(line.split("\\s+")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private static String formatInts(int[] values) {
+        var sb = new StringBuilder();
+        for (int value : values) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Entry point of a worker process started by
+     * {@link #run(Path, boolean, int)}.
+     * <p>
+     * Usage: {@code <dir> count|solutions <worker> <workers>}
+     *
+     * @param args the command line arguments.
+     * @throws IOException if the files cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4 || !(args[1].equals("count") || args[1].equals("solutions"))) {
+            System.err.println("usage: " + Partition.class.getName() + " <dir> count|solutions <worker> <workers>");
+            System.exit(2);
+        }
+
+        work(Paths.get(args[0]), args[1].equals("solutions"), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+    }
+}
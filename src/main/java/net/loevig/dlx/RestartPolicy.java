@@ -0,0 +1,86 @@
+package net.loevig.dlx;
+
+/**
+ * RestartPolicy decides how long each run of a
+ * {@link DLX#findAny(DancingLinks, long, RestartPolicy) randomized search}
+ * may take before it is abandoned and restarted with a new random order.
+ * <p>
+ * The length of a run is measured as the number of rows tried. The limits
+ * must grow without bound, otherwise a search may never complete.
+ *
+ * @author Anders Løvig
+ */
+@FunctionalInterface
+public interface RestartPolicy {
+
+    /**
+     * Returns the maximum number of rows the given run may try.
+     *
+     * @param run the run number, starting from 0.
+     * @return the limit of the run.
+     */
+    long limit(int run);
+
+    /**
+     * Returns a policy, which never restarts.
+     *
+     * @return a policy without limits.
+     */
+    static RestartPolicy never() {
+        return run -> Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns a policy following the Luby sequence 1, 1, 2, 1, 1, 2, 4, ...
+     * multiplied by {@code scale}. The Luby sequence is within a logarithmic
+     * factor of the optimal restart strategy for an unknown runtime
+     * distribution (Luby, Sinclair and Zuckerman, 1993).
+     *
+     * @param scale the limit of the shortest runs.
+     * @return a Luby restart policy.
+     */
+    static RestartPolicy luby(long scale) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("scale must be positive");
+        }
+        return run -> {
+            var luby = lubySequence(run + 1);
+            return luby > Long.MAX_VALUE / scale ? Long.MAX_VALUE : luby * scale;
+        };
+    }
+
+    /**
+     * Returns a policy where the first run has limit {@code base}, and each
+     * following run has a limit {@code factor} times the previous.
+     *
+     * @param base the limit of the first run.
+     * @param factor the growth of the limit between runs.
+     * @return a geometric restart policy.
+     */
+    static RestartPolicy geometric(long base, double factor) {
+        if (base <= 0 || !(factor > 1)) {
+            throw new IllegalArgumentException("base must be positive and factor greater than 1");
+        }
+        return run -> {
+            var limit = base * Math.pow(factor, run);
+            return limit >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) limit;
+        };
+    }
+
+    /**
+     * Returns the {@code i}th element of the Luby sequence, starting from 1.
+     *
+     * @param i the index in the sequence.
+     * @return the element of the sequence.
+     */
+    private static long lubySequence(long i) {
+        while (true) {
+            // Find k with 2^(k-1) <= i < 2^k.
+            int k = 64 - Long.numberOfLeadingZeros(i);
+            if (i == (1L << k) - 1) {
+                return 1L << (k - 1);
+            }
+            i -= (1L << (k - 1)) - 1;
+        }
+    }
+}
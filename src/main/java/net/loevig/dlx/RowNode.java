@@ -0,0 +1,26 @@
+package net.loevig.dlx;
+
+/**
+ * RowNode is the first node of a row. It stores the index of the row, so
+ * the other nodes of the row do not need to.
+ *
+ * @author Anders Løvig
+ */
+class RowNode extends Node {
+
+    /**
+     * The index of the row this node belongs to.
+     */
+    protected final int row;
+
+    /**
+     * Creates a new RowNode.
+     *
+     * @param column the column node.
+     * @param row the row index.
+     */
+    protected RowNode(ColumnNode column, int row) {
+        super(column);
+        this.row = row;
+    }
+}
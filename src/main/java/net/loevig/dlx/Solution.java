@@ -1,46 +1,121 @@
 package net.loevig.dlx;
 
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Spliterator;
-import java.util.function.Consumer;
 
 /**
- * Solution represents a list of nodes, which is a solution to an exact cover
+ * Solution represents a list of rows, which is a solution to an exact cover
  * problem represented by a {@link DancingLinks Dancing Links} structure.
+ * Iterating a solution yields the payload of each row in the solution.
  *
  * @author Anders Løvig
  */
-public class Solution<E> implements Iterable<Node<E>> {
+public class Solution<E> implements Iterable<E> {
 
     /**
-     * List of nodes, which is the solution.
+     * The indices of the rows in the solution.
      */
-    private final List<Node<E>> nodes;
+    private final int[] rows;
+
+    /**
+     * The payloads of the rows in the solution.
+     */
+    private final List<E> values;
+
+    /**
+     * The sum of the costs of the rows in the solution.
+     */
+    private final double cost;
 
     /**
      * Create a new solution from the given list of nodes.
-     * The nodes are copied to an internal list. Subsequent modifications
-     * will of {@code nodes} will not change the new solution.
+     * The rows of the nodes are copied to an internal array. Subsequent
+     * modifications of {@code nodes} will not change the new solution.
      *
+     * @param dl the structure the nodes belong to.
      * @param nodes of the solution.
      */
-    protected Solution(List<Node<E>> nodes) {
-        this.nodes = List.copyOf(nodes);
+    protected Solution(DancingLinks<E> dl, List<Node> nodes) {
+        this.rows = new int[nodes.size()];
+        var cost = 0.0;
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = nodes.get(i).row();
+            cost += dl.costs[rows[i]];
+        }
+        this.cost = cost;
+        this.values = Collections.unmodifiableList(dl.payloads(rows));
+    }
+
+    /**
+     * Create a new solution from the given row indices.
+     * The rows are copied to an internal array. Subsequent modifications
+     * of {@code rows} will not change the new solution.
+     *
+     * @param dl the structure the rows belong to.
+     * @param rows of the solution.
+     */
+    protected Solution(DancingLinks<E> dl, int[] rows) {
+        this.rows = rows.clone();
+        var cost = 0.0;
+        for (int row : rows) {
+            cost += dl.costs[row];
+        }
+        this.cost = cost;
+        this.values = Collections.unmodifiableList(dl.payloads(this.rows));
     }
 
     /**
-     * Returns number of nodes in this solution.
+     * Returns number of rows in this solution.
      *
-     * @return the number of nodes of this solution.
+     * @return the number of rows of this solution.
      */
     public int size() {
-        return nodes.size();
+        return rows.length;
+    }
+
+    /**
+     * Returns the payload of the row at {@code index} in this solution.
+     *
+     * @param index the index in this solution.
+     * @return the row payload.
+     */
+    public E get(int index) {
+        return values.get(index);
+    }
+
+    /**
+     * Returns the row index of the row at {@code index} in this solution.
+     *
+     * @param index the index in this solution.
+     * @return the row index in the dancing links structure.
+     */
+    public int getRow(int index) {
+        return rows[index];
+    }
+
+    /**
+     * Returns the row indices of this solution, in the order they were chosen.
+     *
+     * @return a copy of the row indices.
+     */
+    public int[] getRows() {
+        return rows.clone();
+    }
+
+    /**
+     * Returns the cost of this solution, which is the sum of the costs of
+     * its rows.
+     *
+     * @return the cost of this solution.
+     * @see DancingLinks#setCost(int, double)
+     */
+    public double getCost() {
+        return cost;
     }
 
     @Override
-    public Iterator<Node<E>> iterator() {
-        return nodes.iterator();
+    public Iterator<E> iterator() {
+        return values.iterator();
     }
 }
@@ -0,0 +1,243 @@
+package net.loevig.dlx;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * TemplateCache keeps built exact cover problems, so problems of the same
+ * size are only built once. Cached structures are lent to callers, which
+ * is possible since every search restores the links when it finishes.
+ * <p>
+ * A structure is lent for the duration of a function call. When every
+ * cached structure for a key is in use, for example by other threads, a
+ * new structure is built and added to the cache when it is returned.
+ * <p>
+ * The cache is bounded by the total number of nodes in the cached structures.
+ * When the bound is exceeded, the least recently used keys are evicted.
+ * Structures larger than the bound are built but never cached.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Anders Løvig
+ */
+public class TemplateCache {
+
+    /**
+     * The maximum total number of nodes in the cached structures.
+     */
+    private final long maxNodes;
+
+    /**
+     * The cached structures of each key, in least recently used order.
+     */
+    private final LinkedHashMap<Object, Entry> templates = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The total number of nodes in the cached structures.
+     */
+    private long nodes;
+
+    /**
+     * Create a new, empty cache.
+     *
+     * @param maxNodes the maximum total number of nodes in the cached structures.
+     */
+    public TemplateCache(long maxNodes) {
+        if (maxNodes <= 0) {
+            throw new IllegalArgumentException("maxNodes must be positive");
+        }
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Lend the structure cached for {@code key} to {@code fn}, and return
+     * the result of {@code fn}. If no structure is available, it is built
+     * with {@code builder}.
+     * <p>
+     * {@code fn} may search the structure and change row costs, but must not
+     * keep a reference to it after returning. Row costs are restored when
+     * the structure is returned. If {@code fn} throws an exception, the
+     * structure may be left partially covered, so it is not returned to the
+     * cache.
+     * <p>
+     * Keys must identify the structure built by {@code builder}, including
+     * the type of its payloads.
+     *
+     * @param key the key of the structure.
+     * @param builder builds the structure, if none is available.
+     * @param fn the function to apply to the structure.
+     * @return the result of {@code fn}.
+     */
+    @SuppressWarnings("unchecked")
+    public <E, R> R apply(Object key, Supplier<DancingLinks<E>> builder, Function<? super DancingLinks<E>, R> fn) {
+        DancingLinks<E> dl = null;
+        Entry entry;
+        synchronized (this) {
+            entry = templates.get(key);
+            if (entry != null && !entry.idle.isEmpty()) {
+                dl = (DancingLinks<E>) entry.idle.pop();
+                nodes -= entry.nodeCount;
+            }
+        }
+
+        if (dl == null) {
+            // Build outside the lock, so other keys can still be served.
+            dl = builder.get();
+            if (entry == null) {
+                entry = new Entry(dl);
+            }
+        }
+
+        var result = fn.apply(dl);
+        release(key, entry, dl);
+
+        return result;
+    }
+
+    /**
+     * Lend {@link Templates#sudoku(int, int)} to {@code fn}.
+     *
+     * @param boxRows the number of rows in a box.
+     * @param boxColumns the number of columns in a box.
+     * @param fn the function to apply to the structure.
+     * @return the result of {@code fn}.
+     * @see #apply(Object, Supplier, Function)
+     */
+    public <R> R sudoku(int boxRows, int boxColumns, Function<? super DancingLinks<Templates.Cell>, R> fn) {
+        return apply(List.of("sudoku", boxRows, boxColumns), () -> Templates.sudoku(boxRows, boxColumns), fn);
+    }
+
+    /**
+     * Lend {@link Templates#queens(int)} to {@code fn}.
+     *
+     * @param n the size of the board.
+     * @param fn the function to apply to the structure.
+     * @return the result of {@code fn}.
+     * @see #apply(Object, Supplier, Function)
+     */
+    public <R> R queens(int n, Function<? super DancingLinks<Templates.Square>, R> fn) {
+        return apply(List.of("queens", n), () -> Templates.queens(n), fn);
+    }
+
+    /**
+     * Lend {@link Templates#polyomino(int, int, List, boolean)} to {@code fn}.
+     *
+     * @param width the width of the board.
+     * @param height the height of the board.
+     * @param pieces the cells of each piece.
+     * @param reflections whether pieces may be reflected.
+     * @param fn the function to apply to the structure.
+     * @return the result of {@code fn}.
+     * @see #apply(Object, Supplier, Function)
+     */
+    public <R> R polyomino(int width, int height, List<int[][]> pieces, boolean reflections,
+                           Function<? super DancingLinks<Templates.Placement>, R> fn) {
+        var key = List.of("polyomino", width, height, Arrays.deepToString(pieces.toArray()), reflections);
+        return apply(key, () -> Templates.polyomino(width, height, pieces, reflections), fn);
+    }
+
+    /**
+     * Returns the number of cached structures.
+     *
+     * @return the number of cached structures.
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (var entry : templates.values()) {
+            size += entry.idle.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the total number of nodes in the cached structures.
+     *
+     * @return the number of nodes.
+     */
+    public synchronized long nodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Remove all cached structures. Lent structures are still returned to
+     * the cache.
+     */
+    public synchronized void clear() {
+        templates.clear();
+        nodes = 0;
+    }
+
+    /**
+     * Return a lent structure to the cache, if it fits within the bound.
+     *
+     * @param key the key of the structure.
+     * @param entry the entry of the key when the structure was lent.
+     * @param dl the lent structure.
+     */
+    private synchronized void release(Object key, Entry entry, DancingLinks<?> dl) {
+        var current = templates.get(key);
+        if (current != null) {
+            entry = current;
+        }
+        else if (entry.nodeCount <= maxNodes) {
+            // The key is new, or was evicted while the structure was lent.
+            templates.put(key, entry);
+        }
+        else {
+            return;
+        }
+
+        System.arraycopy(entry.costs, 0, dl.costs, 0, entry.costs.length);
+        entry.idle.push(dl);
+        nodes += entry.nodeCount;
+        evict();
+    }
+
+    /**
+     * Evict structures of the least recently used keys, until the bound is
+     * met. The most recently used key is evicted last.
+     */
+    private void evict() {
+        var it = templates.values().iterator();
+        while (nodes > maxNodes && it.hasNext()) {
+            var entry = it.next();
+            while (nodes > maxNodes && !entry.idle.isEmpty()) {
+                entry.idle.pop();
+                nodes -= entry.nodeCount;
+            }
+            if (entry.idle.isEmpty()) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * The cached structures of a key.
+     */
+    private static class Entry {
+
+        /**
+         * The structures which are not lent.
+         */
+        private final ArrayDeque<DancingLinks<?>> idle = new ArrayDeque<>();
+
+        /**
+         * The number of nodes in each structure.
+         */
+        private final long nodeCount;
+
+        /**
+         * The row costs of the structures as built, restored on return.
+         */
+        private final double[] costs;
+
+        private Entry(DancingLinks<?> dl) {
+            this.nodeCount = dl.nodeCount();
+            this.costs = dl.costs.clone();
+        }
+    }
+}
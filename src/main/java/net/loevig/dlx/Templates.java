@@ -0,0 +1,342 @@
+package net.loevig.dlx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Encoders for common families of exact cover problems. Each encoder builds
+ * the sparse matrix of the problem directly, without a dense matrix of
+ * values. The structures depend only on the size of the problem, and can be
+ * reused through a {@link TemplateCache}.
+ *
+ * @author Anders Løvig
+ */
+public class Templates {
+
+    /**
+     * Creates the exact cover problem of a generalized Sudoku, where the
+     * board has side {@code n = boxRows * boxColumns} and is divided into
+     * boxes of {@code boxRows} rows and {@code boxColumns} columns.
+     * <p>
+     * Each row places a digit in a cell. The digit {@code digit} in row
+     * {@code row} and column {@code column} of the board is the row
+     * {@link #sudokuRow(int, int, int, int) sudokuRow(n, row, column, digit)}.
+     * Givens can be placed by solving a {@link Job} with the rows of the
+     * givens as prefix.
+     *
+     * @param boxRows the number of rows in a box.
+     * @param boxColumns the number of columns in a box.
+     * @return the exact cover problem.
+     */
+    public static DancingLinks<Cell> sudoku(int boxRows, int boxColumns) {
+        if (boxRows <= 0 || boxColumns <= 0) {
+            throw new IllegalArgumentException("box size must be positive");
+        }
+
+        int n = boxRows * boxColumns;
+        int cells = n * n;
+        var matrix = new int[cells * n][];
+        var rows = new ArrayList<Cell>(matrix.length);
+
+        for (int row = 0; row < n; row++) {
+            for (int column = 0; column < n; column++) {
+                int box = (row / boxRows) * boxRows + column / boxColumns;
+                for (int digit = 1; digit <= n; digit++) {
+                    // Columns: cell, row-digit, column-digit and box-digit constraints.
+                    matrix[sudokuRow(n, row, column, digit)] = new int[] {
+                            row * n + column,
+                            cells + row * n + digit - 1,
+                            2 * cells + column * n + digit - 1,
+                            3 * cells + box * n + digit - 1
+                    };
+                    rows.add(new Cell(row, column, digit));
+                }
+            }
+        }
+
+        return new DancingLinks<>(4 * cells, matrix, rows);
+    }
+
+    /**
+     * Returns the index of the row in {@link #sudoku(int, int)}, which
+     * places {@code digit} in the given cell.
+     *
+     * @param n the side of the board.
+     * @param row the row of the cell, starting from 0.
+     * @param column the column of the cell, starting from 0.
+     * @param digit the digit, starting from 1.
+     * @return the row index.
+     */
+    public static int sudokuRow(int n, int row, int column, int digit) {
+        return (row * n + column) * n + digit - 1;
+    }
+
+    /**
+     * Creates the exact cover problem of placing {@code n} queens on an
+     * {@code n} by {@code n} board, so no two queens attack each other.
+     * <p>
+     * Each row places a queen on a square, and the square in row {@code row}
+     * and column {@code column} is the row {@code row * n + column}. Ranks
+     * and files are primary columns, while diagonals are secondary columns,
+     * since not every diagonal has a queen.
+     *
+     * @param n the size of the board.
+     * @return the exact cover problem.
+     */
+    public static DancingLinks<Square> queens(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+
+        int diagonals = 2 * n - 1;
+        var matrix = new int[n * n][];
+        var rows = new ArrayList<Square>(matrix.length);
+
+        for (int row = 0; row < n; row++) {
+            for (int column = 0; column < n; column++) {
+                // Columns: rank, file, diagonal and anti-diagonal.
+                matrix[row * n + column] = new int[] {
+                        row,
+                        n + column,
+                        2 * n + row + column,
+                        2 * n + diagonals + row - column + n - 1
+                };
+                rows.add(new Square(row, column));
+            }
+        }
+
+        return new DancingLinks<>(2 * n, 2 * diagonals, matrix, rows);
+    }
+
+    /**
+     * Creates the exact cover problem of tiling a {@code width} by
+     * {@code height} board with the given pieces, using each piece exactly
+     * once. Each piece is given as the {@code {row, column}} coordinates of
+     * its cells.
+     * <p>
+     * Each row places a piece in one orientation at one position. Rotations,
+     * and reflections if {@code reflections} is set, which give the same
+     * shape are only placed once. The first columns are the pieces, followed
+     * by a column for each cell of the board in row-major order.
+     *
+     * @param width the width of the board.
+     * @param height the height of the board.
+     * @param pieces the cells of each piece.
+     * @param reflections whether pieces may be reflected.
+     * @return the exact cover problem.
+     */
+    public static DancingLinks<Placement> polyomino(int width, int height, List<int[][]> pieces, boolean reflections) {
+        if (width <= 0 || height <= 0 || pieces.isEmpty()) {
+            throw new IllegalArgumentException("board and pieces must not be empty");
+        }
+
+        var matrix = new ArrayList<int[]>();
+        var rows = new ArrayList<Placement>();
+
+        for (int piece = 0; piece < pieces.size(); piece++) {
+            for (var shape : orientations(pieces.get(piece), reflections)) {
+                // Every position where the shape fits on the board.
+                for (int row = 0; row < height; row++) {
+                    for (int column = 0; column < width; column++) {
+                        var cells = place(shape, row, column, width, height);
+                        if (cells == null) {
+                            continue;
+                        }
+
+                        var columns = new int[cells.length + 1];
+                        columns[0] = piece;
+                        for (int i = 0; i < cells.length; i++) {
+                            columns[i + 1] = pieces.size() + cells[i];
+                        }
+                        matrix.add(columns);
+                        rows.add(new Placement(piece, cells));
+                    }
+                }
+            }
+        }
+
+        return new DancingLinks<>(pieces.size() + width * height, matrix.toArray(new int[0][]), rows);
+    }
+
+    /**
+     * Returns the distinct orientations of a piece. Each orientation is
+     * normalized to start at row and column 0, and its cells are sorted.
+     */
+    private static List<int[][]> orientations(int[][] piece, boolean reflections) {
+        if (piece.length == 0) {
+            throw new IllegalArgumentException("pieces must not be empty");
+        }
+
+        // Keyed by the normalized cells, so equal shapes are only kept once.
+        var shapes = new LinkedHashMap<String, int[][]>();
+        var shape = piece;
+        for (int reflection = 0; reflection < (reflections ? 2 : 1); reflection++) {
+            for (int rotation = 0; rotation < 4; rotation++) {
+                var normalized = normalize(shape);
+                shapes.putIfAbsent(Arrays.deepToString(normalized), normalized);
+
+                // Rotate a quarter turn.
+                var rotated = new int[shape.length][];
+                for (int i = 0; i < shape.length; i++) {
+                    rotated[i] = new int[] { shape[i][1], -shape[i][0] };
+                }
+                shape = rotated;
+            }
+
+            // Reflect in the vertical axis.
+            var reflected = new int[shape.length][];
+            for (int i = 0; i < shape.length; i++) {
+                reflected[i] = new int[] { shape[i][0], -shape[i][1] };
+            }
+            shape = reflected;
+        }
+
+        return new ArrayList<>(shapes.values());
+    }
+
+    private static int[][] normalize(int[][] shape) {
+        int minRow = Integer.MAX_VALUE;
+        int minColumn = Integer.MAX_VALUE;
+        for (var cell : shape) {
+            minRow = Math.min(minRow, cell[0]);
+            minColumn = Math.min(minColumn, cell[1]);
+        }
+
+        var normalized = new int[shape.length][];
+        for (int i = 0; i < shape.length; i++) {
+            normalized[i] = new int[] { shape[i][0] - minRow, shape[i][1] - minColumn };
+        }
+        Arrays.sort(normalized, (a, b) -> a[0] != b[0] ? a[0] - b[0] : a[1] - b[1]);
+
+        return normalized;
+    }
+
+    /**
+     * Returns the board cells covered by {@code shape} placed at the given
+     * offset, or {@code null} if the shape does not fit on the board.
+     */
+    private static int[] place(int[][] shape, int row, int column, int width, int height) {
+        var cells = new int[shape.length];
+        for (int i = 0; i < shape.length; i++) {
+            int r = row + shape[i][0];
+            int c = column + shape[i][1];
+            if (r >= height || c >= width) {
+                return null;
+            }
+            cells[i] = r * width + c;
+        }
+        Arrays.sort(cells);
+
+        for (int i = 1; i < cells.length; i++) {
+            if (cells[i] == cells[i - 1]) {
+                throw new IllegalArgumentException("pieces must not contain a cell twice");
+            }
+        }
+
+        return cells;
+    }
+
+    /**
+     * A digit placed in a cell of a Sudoku.
+     */
+    public static final class Cell {
+
+        private final int row;
+
+        private final int column;
+
+        private final int digit;
+
+        Cell(int row, int column, int digit) {
+            this.row = row;
+            this.column = column;
+            this.digit = digit;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        public int getDigit() {
+            return digit;
+        }
+
+        @Override
+        public String toString() {
+            return "Cell(" + row + ", " + column + ") = " + digit;
+        }
+    }
+
+    /**
+     * A square of a chess board.
+     */
+    public static final class Square {
+
+        private final int row;
+
+        private final int column;
+
+        Square(int row, int column) {
+            this.row = row;
+            this.column = column;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        @Override
+        public String toString() {
+            return "Square(" + row + ", " + column + ")";
+        }
+    }
+
+    /**
+     * A piece placed on the cells of a board.
+     */
+    public static final class Placement {
+
+        private final int piece;
+
+        private final int[] cells;
+
+        Placement(int piece, int[] cells) {
+            this.piece = piece;
+            this.cells = cells;
+        }
+
+        /**
+         * Returns the index of the placed piece.
+         *
+         * @return the piece index.
+         */
+        public int getPiece() {
+            return piece;
+        }
+
+        /**
+         * Returns the cells covered by the piece, in row-major order
+         * ({@code row * width + column}).
+         *
+         * @return a copy of the cells.
+         */
+        public int[] getCells() {
+            return cells.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "Placement(" + piece + ", " + Arrays.toString(cells) + ")";
+        }
+    }
+}
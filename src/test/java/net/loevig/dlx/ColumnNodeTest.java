@@ -12,7 +12,7 @@ public class ColumnNodeTest {
                 { null }
         });
         // Remove first column
-        ((ColumnNode<Integer>) dl.root.right).cover();
+        ((ColumnNode) dl.root.right).cover();
         assertEquals(0, dl.root.size);
         assertEquals(0, DancingLinksTest.countRight(dl.root));
     }
@@ -23,15 +23,15 @@ public class ColumnNodeTest {
                 { 1, 2 }
         });
         // Remove first column
-        ((ColumnNode<Integer>) dl.root.right).cover();
+        ((ColumnNode) dl.root.right).cover();
         assertEquals(1, dl.root.size);
         assertEquals(1, DancingLinksTest.countRight(dl.root));
 
-        assertEquals(0, ((ColumnNode<Integer>) dl.root.right).size);
+        assertEquals(0, ((ColumnNode) dl.root.right).size);
         assertEquals(0, DancingLinksTest.countDown(dl.root.right));
 
         // Remove second column
-        ((ColumnNode<Integer>) dl.root.right).cover();
+        ((ColumnNode) dl.root.right).cover();
         assertEquals(0, dl.root.size);
         assertEquals(0, DancingLinksTest.countRight(dl.root));
     }
@@ -43,15 +43,15 @@ public class ColumnNodeTest {
                 { null, 3 }
         });
         // Remove first column
-        ((ColumnNode<Integer>) dl.root.right).cover();
+        ((ColumnNode) dl.root.right).cover();
         assertEquals(1, dl.root.size);
         assertEquals(1, DancingLinksTest.countRight(dl.root));
 
-        assertEquals(1, ((ColumnNode<Integer>) dl.root.right).size);
+        assertEquals(1, ((ColumnNode) dl.root.right).size);
         assertEquals(1, DancingLinksTest.countDown(dl.root.right));
 
         // Remove second column
-        ((ColumnNode<Integer>) dl.root.right).cover();
+        ((ColumnNode) dl.root.right).cover();
         assertEquals(0, dl.root.size);
         assertEquals(0, DancingLinksTest.countRight(dl.root));
     }
@@ -61,7 +61,7 @@ public class ColumnNodeTest {
         var dl = new DancingLinks<>(new Integer[][] {
                 { null }
         });
-        var node = ((ColumnNode<Integer>) dl.root.right);
+        var node = ((ColumnNode) dl.root.right);
         node.cover();
         node.uncover();
         assertEquals(1, dl.root.size);
@@ -73,8 +73,8 @@ public class ColumnNodeTest {
         var dl = new DancingLinks<>(new Integer[][] {
                 { 1, 2 }
         });
-        var node1 = ((ColumnNode<Integer>) dl.root.right);
-        var node2 = ((ColumnNode<Integer>) node1.right);
+        var node1 = ((ColumnNode) dl.root.right);
+        var node2 = ((ColumnNode) node1.right);
 
         node1.cover();
         node2.cover();
@@ -94,8 +94,8 @@ public class ColumnNodeTest {
                 { 1, 2 },
                 { null, 3 }
         });
-        var node1 = ((ColumnNode<Integer>) dl.root.right);
-        var node2 = ((ColumnNode<Integer>) node1.right);
+        var node1 = ((ColumnNode) dl.root.right);
+        var node2 = ((ColumnNode) node1.right);
 
         node1.cover();
         node2.cover();
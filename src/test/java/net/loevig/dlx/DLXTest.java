@@ -2,23 +2,32 @@ package net.loevig.dlx;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class DLXTest {
 
+    /**
+     * The example from Knuth's article, with the single solution B, D, F.
+     */
+    static final String[][] KNUTH = {
+            { "A", null, null, "A", null, null, "A" },
+            { "B", null, null, "B", null, null, null },
+            { null, null, null, "C", "C", null, "C" },
+            { null, null, "D", null, "D", "D", null },
+            { null, "E", "E", null, null, "E", "E" },
+            { null, "F", null, null, null, null, "F" }
+    };
+
     @Test
     public void test1() {
-        var dl = new DancingLinks<>(new String[][] {
-                { "A", null, null, "A", null, null, "A" },
-                { "B", null, null, "B", null, null, null },
-                { null, null, null, "C", "C", null, "C" },
-                { null, null, "D", null, "D", "D", null },
-                { null, "E", "E", null, null, "E", "E" },
-                { null, "F", null, null, null, null, "F" }
-        });
+        var dl = new DancingLinks<>(KNUTH);
         var solutions = DLX.solve(dl);
         assertEquals(1, solutions.size());
 
@@ -26,9 +35,117 @@ public class DLXTest {
         assertEquals(3, solution.size());
 
         var rows = new HashSet<>(Set.of("B", "D", "F"));
-        for (var node : solution) {
-            rows.remove(node.get());
+        for (var value : solution) {
+            rows.remove(value);
         }
         assertTrue(rows.isEmpty());
+
+        var indices = solution.getRows();
+        Arrays.sort(indices);
+        assertArrayEquals(new int[] { 1, 3, 5 }, indices);
+    }
+
+    @Test
+    public void minimize() {
+        // Rows 0 and 1 together cover both columns, as does row 2 alone.
+        var dl = new DancingLinks<>(new String[][] {
+                { "A", null },
+                { null, "B" },
+                { "C", "C" }
+        });
+        dl.setCost(0, 1);
+        dl.setCost(1, 2);
+        dl.setCost(2, 4);
+        var solution = DLX.minimize(dl).orElseThrow();
+        assertEquals(3.0, solution.getCost());
+        assertEquals(2, solution.size());
+
+        dl.setCost(2, 2.5);
+        solution = DLX.minimize(dl).orElseThrow();
+        assertEquals(2.5, solution.getCost());
+        assertEquals("C", solution.get(0));
+    }
+
+    @Test
+    public void minimizeNoSolution() {
+        var dl = new DancingLinks<>(new String[][] {
+                { "A", null },
+                { "B", null }
+        });
+        assertTrue(DLX.minimize(dl).isEmpty());
+    }
+
+    @Test
+    public void minimizeMatchesSolve() {
+        var random = new Random(42);
+        var values = DancingLinksTest.randomValues(random, 14, 6, 3);
+        var dl = new DancingLinks<>(values);
+        for (int row = 0; row < values.length; row++) {
+            dl.setCost(row, random.nextInt(10));
+        }
+
+        var expected = DLX.solve(dl).stream()
+                .mapToDouble(Solution::getCost)
+                .min();
+
+        var improvements = new ArrayList<Double>();
+        var best = DLX.minimize(dl, solution -> improvements.add(solution.getCost()));
+
+        assertEquals(expected.isPresent(), best.isPresent());
+        if (best.isPresent()) {
+            assertEquals(expected.getAsDouble(), best.get().getCost());
+            assertEquals(best.get().getCost(), improvements.get(improvements.size() - 1));
+        }
+        for (int i = 1; i < improvements.size(); i++) {
+            assertTrue(improvements.get(i) < improvements.get(i - 1));
+        }
+    }
+
+    @Test
+    public void findAny() {
+        var dl = new DancingLinks<>(KNUTH);
+        for (long seed = 0; seed < 10; seed++) {
+            var solution = DLX.findAny(dl, seed, RestartPolicy.luby(1)).orElseThrow();
+            assertEquals(Set.of("B", "D", "F"), new HashSet<>(List.of(solution.get(0), solution.get(1), solution.get(2))));
+        }
+
+        // The structure is restored after the search.
+        assertEquals(1, DLX.solve(dl).size());
+    }
+
+    @Test
+    public void findAnyIsReproducible() {
+        var dl = new DancingLinks<>(DancingLinksTest.randomValues(new Random(7), 30, 8, 4));
+        var solutions = DLX.solve(dl).size();
+
+        for (long seed = 0; seed < 5; seed++) {
+            var first = DLX.findAny(dl, seed, RestartPolicy.geometric(2, 1.5));
+            var second = DLX.findAny(dl, seed, RestartPolicy.geometric(2, 1.5));
+            assertEquals(solutions > 0, first.isPresent());
+            if (first.isPresent()) {
+                assertArrayEquals(first.get().getRows(), second.get().getRows());
+            }
+        }
+    }
+
+    @Test
+    public void findAnyNoSolution() {
+        var dl = new DancingLinks<>(new String[][] {
+                { "A", null },
+                { "B", null }
+        });
+        assertTrue(DLX.findAny(dl, 0, RestartPolicy.luby(1)).isEmpty());
+    }
+
+    @Test
+    public void findAnyPortfolio() throws InterruptedException {
+        var dl = new DancingLinks<>(KNUTH);
+        var solution = DLX.findAny(dl, 0, RestartPolicy.luby(1), 4).orElseThrow();
+        assertEquals(3, solution.size());
+
+        var unsolvable = new DancingLinks<>(new String[][] {
+                { "A", null }
+        });
+        assertTrue(DLX.findAny(unsolvable, 0, RestartPolicy.luby(1), 4).isEmpty());
     }
-}
\ No newline at end of file
+}
@@ -2,11 +2,14 @@ package net.loevig.dlx;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class DancingLinksTest {
 
-    static int countRight(Node<Integer> node) {
+    static int countRight(Node node) {
         int size = 0;
         for (var n = node.right; n != node; n = n.right) {
             size++;
@@ -14,7 +17,7 @@ public class DancingLinksTest {
         return size;
     }
 
-    static int countLeft(Node<Integer> node) {
+    static int countLeft(Node node) {
         int size = 0;
         for (var n = node.left; n != node; n = n.left) {
             size++;
@@ -22,7 +25,7 @@ public class DancingLinksTest {
         return size;
     }
 
-    static int countDown(Node<Integer> node) {
+    static int countDown(Node node) {
         int size = 0;
         for (var n = node.down; n != node; n = n.down) {
             size++;
@@ -30,7 +33,7 @@ public class DancingLinksTest {
         return size;
     }
 
-    static int countUp(Node<Integer> node) {
+    static int countUp(Node node) {
         int size = 0;
         for (var n = node.up; n != node; n = n.up) {
             size++;
@@ -38,6 +41,16 @@ public class DancingLinksTest {
         return size;
     }
 
+    static Integer[][] randomValues(Random random, int rows, int columns, int oneIn) {
+        var values = new Integer[rows][columns];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+                values[row][col] = random.nextInt(oneIn) == 0 ? row : null;
+            }
+        }
+        return values;
+    }
+
     @Test
     public void invalidMatrix() {
         // Cannot create DL if matrix is empty
@@ -63,29 +76,64 @@ public class DancingLinksTest {
         assertEquals(1, countRight(dl.root));
         // The column should have one row
         assertEquals(1, countDown(dl.root.right));
-        assertEquals(1, ((ColumnNode<Integer>) dl.root.right).size);
+        assertEquals(1, ((ColumnNode) dl.root.right).size);
     }
 
     @Test
-    public void getNodeValue() {
+    public void getRowValue() {
         var dl = new DancingLinks<>(new Integer[][] {
                 { 1 }
         });
-        assertEquals(1, dl.root.right.down.get());
+        assertEquals(0, dl.root.right.down.row());
+        assertEquals(1, dl.get(0));
+        assertEquals(1, dl.rowCount());
+        assertEquals(1, dl.columnCount());
     }
 
     @Test
-    public void setNodeValue() {
+    public void onlyFirstNodeStoresRow() {
         var dl = new DancingLinks<>(new Integer[][] {
-                { 2 }
+                { 1, null, 1 },
+                { null, 2, 2 }
         });
-        var node = dl.root.right.down;
-        assertEquals(2, node.get());
-        node.set(3);
-        assertEquals(3, node.get());
-        node.set(8);
-        assertEquals(8, node.get());
+        var first = dl.root.right.down;
+        assertTrue(first instanceof RowNode);
+        assertFalse(first.right instanceof RowNode);
+        assertEquals(0, first.right.row());
 
+        var last = dl.root.right.right.right.down.down; // 2. row, 3. col
+        assertFalse(last instanceof RowNode);
+        assertEquals(1, last.row());
+        assertSame(dl.heads[1], last.left);
+    }
+
+    @Test
+    public void rowValueIsFirstNonNull() {
+        var dl = new DancingLinks<>(new Integer[][] {
+                { null, 2, 3 },
+                { null, null, null }
+        });
+        assertEquals(2, dl.get(0));
+        assertNull(dl.get(1));
+        assertEquals(2, dl.rowCount());
+    }
+
+    @Test
+    public void booleanMatrix() {
+        var dl = new DancingLinks<>(new boolean[][] {
+                { true, false },
+                { true, true }
+        }, List.of("a", "b"));
+        assertEquals(2, countDown(dl.root.right));
+        assertEquals(1, countDown(dl.root.right.right));
+        assertEquals(1, dl.root.right.right.down.row());
+        assertEquals("a", dl.get(0));
+        assertEquals("b", dl.get(1));
+
+        // Each row must have a payload
+        assertThrows(IllegalArgumentException.class, () -> {
+            new DancingLinks<>(new boolean[][] { { true } }, List.of());
+        });
     }
 
     @Test
@@ -104,18 +152,19 @@ public class DancingLinksTest {
         var dl = new DancingLinks<>(new Integer[][] {
                 { 4, 7 }
         });
-        Node<Integer> node = dl.root;
+        Node node = dl.root;
         assertEquals(0, countDown(node));
         assertEquals(2, countRight(node));
         assertEquals(2, dl.root.size);
 
         node = node.right;
         assertEquals(1, countDown(node));
-        assertEquals(4, node.down.get()); // Value of column 1
+        assertEquals(0, node.down.row()); // Row of column 1
 
         node = node.right;
         assertEquals(1, countDown(node));
-        assertEquals(7, node.down.get()); // Value of column 2
+        assertEquals(0, node.down.row()); // Row of column 2
+        assertEquals(4, dl.get(0));
     }
 
     @Test
@@ -124,19 +173,19 @@ public class DancingLinksTest {
                 { 3 },
                 { 6 }
         });
-        Node<Integer> node = dl.root;
+        Node node = dl.root;
         assertEquals(0, countDown(node));
         assertEquals(1, countRight(node));
         assertEquals(1, dl.root.size);
 
         node = node.right;
         assertEquals(2, countDown(node));
-        assertEquals(2, ((ColumnNode<Integer>) dl.root.right).size);
+        assertEquals(2, ((ColumnNode) dl.root.right).size);
 
         node = node.down;
-        assertEquals(3, node.get()); // Value of row 1
+        assertEquals(3, dl.get(node.row())); // Value of row 1
         node = node.down;
-        assertEquals(6, node.get()); // Value of row 2
+        assertEquals(6, dl.get(node.row())); // Value of row 2
     }
 
     @Test
@@ -145,7 +194,7 @@ public class DancingLinksTest {
                 { 2, 5 },
                 { 9, 1 }
         });
-        Node<Integer> node = dl.root;
+        Node node = dl.root;
         assertEquals(0, countDown(node));
         assertEquals(2, countRight(node));
         assertEquals(2, dl.root.size);
@@ -154,17 +203,17 @@ public class DancingLinksTest {
         assertEquals(2, countDown(node));
         node = node.down; // 1. row, 1. column
         assertEquals(1, countRight(node));
-        assertEquals(2, node.get()); // Value of row 1
+        assertEquals(2, dl.get(node.row())); // Value of row 1
         node = node.down; // 2. row, 1. column
         assertEquals(1, countRight(node));
-        assertEquals(9, node.get()); // Value of row 2
+        assertEquals(9, dl.get(node.row())); // Value of row 2
 
         node = node.down.right; // 2. column
         assertEquals(2, countDown(node));
         node = node.down; // 1. row, 2. column
-        assertEquals(5, node.get()); // Value of row 1
+        assertEquals(0, node.row()); // Row 1
         node = node.down; // 2. row, 2. column
-        assertEquals(1, node.get()); // Value of row 2
+        assertEquals(1, node.row()); // Row 2
     }
 
     @Test
@@ -174,7 +223,7 @@ public class DancingLinksTest {
                 { null, null, 3 },
                 { 1, 9, 3 }
         });
-        Node<Integer> node = dl.root;
+        Node node = dl.root;
         assertEquals(3, countRight(node));
         assertEquals(3, dl.root.size);
 
@@ -195,23 +244,25 @@ public class DancingLinksTest {
         node = node.right.down; // 1. row, 1.col
         assertEquals(1, countRight(node));
         assertEquals(1, countLeft(node));
-        assertEquals(4, node.get());
+        assertEquals(0, node.row());
+        assertEquals(4, dl.get(node.row()));
         node = node.right; // 1. row, 3. col
-        assertEquals(2, node.get());
+        assertEquals(0, node.row());
 
         node = node.down; // 2.row, 3.col
         assertEquals(0, countRight(node));
         assertEquals(0, countLeft(node));
-        assertEquals(3, node.get());
+        assertEquals(3, dl.get(node.row()));
 
         node = node.down; // 3.row, 3.col
         assertEquals(2, countRight(node));
         assertEquals(2, countLeft(node));
-        assertEquals(3, node.get());
+        assertEquals(2, node.row());
+        assertEquals(1, dl.get(node.row()));
         node = node.left; // 3. row, 2. col
-        assertEquals(9, node.get());
+        assertEquals(2, node.row());
         node = node.left; // 3. row, 1. col
-        assertEquals(1, node.get());
+        assertEquals(2, node.row());
     }
 
     @Test
@@ -219,6 +270,57 @@ public class DancingLinksTest {
         var dl = new DancingLinks<>(new String[][] {
                 { "hello"}
         });
-        assertEquals("hello", dl.root.right.down.get());
+        assertEquals("hello", dl.get(dl.root.right.down.row()));
+    }
+
+    @Test
+    public void rowCost() {
+        var dl = new DancingLinks<>(new Integer[][] {
+                { 1 },
+                { 2 }
+        });
+        assertEquals(0.0, dl.getCost(0));
+        dl.setCost(1, 2.5);
+        assertEquals(2.5, dl.getCost(1));
+
+        // Costs must be finite and non-negative
+        assertThrows(IllegalArgumentException.class, () -> dl.setCost(0, -1));
+        assertThrows(IllegalArgumentException.class, () -> dl.setCost(0, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> dl.setCost(0, Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void copy() {
+        var dl = new DancingLinks<>(new Integer[][] {
+                { 4, null, 2 },
+                { null, null, 3 },
+                { 1, 9, 3 }
+        });
+        dl.setCost(2, 5);
+        var copy = dl.copy();
+        assertEquals(3, copy.root.size);
+        assertEquals(5.0, copy.getCost(2));
+        assertEquals(1, copy.get(2));
+
+        Node node = copy.root.right; // 1. col
+        assertEquals(2, countDown(node));
+        node = node.right; // 2. col
+        assertEquals(1, countDown(node));
+        node = node.right; // 3. col
+        assertEquals(3, countDown(node));
+
+        node = node.up; // 3. row, 3. col
+        assertEquals(2, node.row());
+        assertEquals(2, countRight(node));
+        assertEquals(2, node.right.row());
+
+        // Covering the copy does not change the original.
+        ((ColumnNode) copy.root.right).cover();
+        assertEquals(3, dl.root.size);
+        assertEquals(3, countDown(dl.root.right.right.right));
+
+        // Costs are copied, not shared.
+        copy.setCost(2, 1);
+        assertEquals(5.0, dl.getCost(2));
     }
-}
\ No newline at end of file
+}
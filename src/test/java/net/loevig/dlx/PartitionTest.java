@@ -0,0 +1,217 @@
+package net.loevig.dlx;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionTest {
+
+    static DancingLinks<Integer> randomProblem(long seed) {
+        return new DancingLinks<>(DancingLinksTest.randomValues(new Random(seed), 40, 8, 4));
+    }
+
+    static String key(Solution<?> solution) {
+        var rows = solution.getRows();
+        Arrays.sort(rows);
+        return Arrays.toString(rows);
+    }
+
+    static void delete(Path dir) throws IOException {
+        try (var paths = Files.walk(dir)) {
+            for (var path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void jobToString() {
+        var job = new Job(3, new int[] { 4, 1 });
+        assertEquals("3 4 1", job.toString());
+        assertEquals(job, Job.parse("3 4 1"));
+        assertEquals(new Job(0, new int[0]), Job.parse("0"));
+        assertThrows(IllegalArgumentException.class, () -> Job.parse(""));
+    }
+
+    @Test
+    public void splitCoversAllSolutions() {
+        var dl = randomProblem(1);
+        var expected = DLX.count(dl);
+        assertTrue(expected > 0);
+
+        for (int depth = 0; depth < 4; depth++) {
+            var jobs = Partition.split(dl, depth);
+            long count = 0;
+            for (var job : jobs) {
+                assertTrue(job.getPrefix().length <= depth);
+                count += Partition.count(dl, job);
+            }
+            assertEquals(expected, count);
+        }
+        assertEquals(1, Partition.split(dl, 0).size());
+    }
+
+    @Test
+    public void splitInto() {
+        var dl = randomProblem(1);
+        var jobs = Partition.splitInto(dl, 10);
+        assertTrue(jobs.size() >= 10);
+        for (int i = 0; i < jobs.size(); i++) {
+            assertEquals(i, jobs.get(i).getId());
+        }
+
+        // The jobs are the same as splitting at the final depth.
+        var depth = jobs.stream().mapToInt(job -> job.getPrefix().length).max().orElseThrow();
+        assertEquals(Partition.split(dl, depth), jobs);
+
+        // A single row can only be split into one job.
+        var small = new DancingLinks<>(new Integer[][] { { 1 } });
+        assertEquals(1, Partition.splitInto(small, 10).size());
+    }
+
+    @Test
+    public void splitIntoStopsWhenExhausted() {
+        // The search tree of 6 queens has only 4 leaves with solutions.
+        var dl = Templates.queens(6);
+        var jobs = Partition.splitInto(dl, 1_000_000);
+        assertEquals(4, jobs.size());
+        for (var job : jobs) {
+            assertEquals(6, job.getPrefix().length);
+            assertEquals(1, Partition.count(dl, job));
+        }
+        assertEquals(Partition.split(dl, 6), jobs);
+
+        // Unsolvable problems give no jobs.
+        var unsolvable = new DancingLinks<>(new Integer[][] { { 1, null } });
+        assertTrue(Partition.splitInto(unsolvable, 10).isEmpty());
+    }
+
+    @Test
+    public void solveJobs() {
+        var dl = randomProblem(2);
+        var expected = DLX.solve(dl).stream().map(PartitionTest::key).collect(Collectors.toSet());
+
+        var actual = new HashSet<String>();
+        for (var job : Partition.split(dl, 2)) {
+            for (var solution : Partition.solve(dl, job)) {
+                var prefix = job.getPrefix();
+                for (int i = 0; i < prefix.length; i++) {
+                    assertEquals(prefix[i], solution.getRow(i));
+                    assertEquals(prefix[i], solution.get(i));
+                }
+                assertTrue(actual.add(key(solution)));
+            }
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void invalidPrefix() {
+        var dl = new DancingLinks<>(new String[][] {
+                { "A", "A" },
+                { "B", null },
+                { null, null }
+        });
+        assertThrows(IllegalArgumentException.class, () -> Partition.count(dl, new Job(0, new int[] { 0, 1 })));
+        assertThrows(IllegalArgumentException.class, () -> Partition.count(dl, new Job(0, new int[] { 2 })));
+        assertThrows(IllegalArgumentException.class, () -> Partition.count(dl, new Job(0, new int[] { 3 })));
+
+        // The structure is restored after a failed prefix.
+        assertEquals(2, dl.root.size);
+        assertEquals(1, DLX.count(dl));
+    }
+
+    @Test
+    public void workAndMerge() throws IOException {
+        var dl = randomProblem(3);
+        var dir = Files.createTempDirectory("partition");
+        try {
+            Partition.prepare(dir, dl, Partition.splitInto(dl, 8));
+            assertThrows(IOException.class, () -> Partition.mergeCount(dir));
+
+            Partition.work(dir, true, 0, 2);
+            Partition.work(dir, true, 1, 2);
+            assertEquals(DLX.count(dl), Partition.mergeCount(dir));
+
+            var expected = DLX.solve(dl).stream().map(PartitionTest::key).collect(Collectors.toSet());
+            var solutions = Partition.mergeSolutions(dir, dl);
+            assertEquals(expected.size(), solutions.size());
+            assertEquals(expected, solutions.stream().map(PartitionTest::key).collect(Collectors.toSet()));
+
+            // Resuming only solves the jobs without a result.
+            Files.delete(dir.resolve(Partition.RESULTS_DIR).resolve("0.txt"));
+            assertThrows(IOException.class, () -> Partition.mergeCount(dir));
+            Partition.work(dir, false, 0, 1);
+            assertEquals(DLX.count(dl), Partition.mergeCount(dir));
+        }
+        finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void prepareAgain() throws IOException {
+        var dl = randomProblem(5);
+        var dir = Files.createTempDirectory("partition");
+        try {
+            Partition.prepare(dir, dl, Partition.split(dl, 1));
+            Partition.work(dir, false, 0, 1);
+            assertEquals(DLX.count(dl), Partition.mergeCount(dir));
+
+            // The results of the first split must not be used for the second.
+            var jobs = Partition.split(dl, 3);
+            assertNotEquals(Partition.split(dl, 1).size(), jobs.size());
+            Partition.prepare(dir, dl, jobs);
+            assertThrows(IOException.class, () -> Partition.mergeCount(dir));
+            Partition.work(dir, false, 0, 1);
+            assertEquals(DLX.count(dl), Partition.mergeCount(dir));
+
+            // A different problem in the same directory.
+            var other = randomProblem(6);
+            Partition.prepare(dir, other, Partition.split(other, 2));
+            Partition.work(dir, false, 0, 1);
+            assertEquals(DLX.count(other), Partition.mergeCount(dir));
+        }
+        finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void secondaryColumns() throws IOException {
+        var dl = Templates.queens(6);
+        var dir = Files.createTempDirectory("partition");
+        try {
+            Partition.prepare(dir, dl, Partition.split(dl, 2));
+            Partition.work(dir, false, 0, 1);
+            assertEquals(4, Partition.mergeCount(dir));
+            assertEquals(dl.secondaryCount(), Partition.readProblem(dir).secondaryCount());
+        }
+        finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void runProcesses() throws IOException, InterruptedException {
+        var dl = randomProblem(4);
+        var dir = Files.createTempDirectory("partition");
+        try {
+            Partition.prepare(dir, dl, Partition.splitInto(dl, 6));
+            Partition.run(dir, false, 3);
+            assertEquals(DLX.count(dl), Partition.mergeCount(dir));
+        }
+        finally {
+            delete(dir);
+        }
+    }
+}
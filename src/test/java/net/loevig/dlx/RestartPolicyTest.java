@@ -0,0 +1,40 @@
+package net.loevig.dlx;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RestartPolicyTest {
+
+    @Test
+    public void luby() {
+        var policy = RestartPolicy.luby(1);
+        var expected = new long[] { 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, 1 };
+        for (int run = 0; run < expected.length; run++) {
+            assertEquals(expected[run], policy.limit(run));
+        }
+
+        assertEquals(24, RestartPolicy.luby(3).limit(14));
+    }
+
+    @Test
+    public void geometric() {
+        var policy = RestartPolicy.geometric(10, 2);
+        assertEquals(10, policy.limit(0));
+        assertEquals(20, policy.limit(1));
+        assertEquals(80, policy.limit(3));
+        assertEquals(Long.MAX_VALUE, policy.limit(100));
+    }
+
+    @Test
+    public void never() {
+        assertEquals(Long.MAX_VALUE, RestartPolicy.never().limit(0));
+    }
+
+    @Test
+    public void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> RestartPolicy.luby(0));
+        assertThrows(IllegalArgumentException.class, () -> RestartPolicy.geometric(0, 2));
+        assertThrows(IllegalArgumentException.class, () -> RestartPolicy.geometric(1, 1));
+    }
+}
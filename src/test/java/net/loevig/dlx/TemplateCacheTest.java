@@ -0,0 +1,126 @@
+package net.loevig.dlx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplateCacheTest {
+
+    @Test
+    public void hitReusesStructure() {
+        var cache = new TemplateCache(10_000);
+        var builds = new AtomicInteger();
+        var lent = new ArrayList<DancingLinks<Templates.Square>>();
+
+        for (int i = 0; i < 3; i++) {
+            var count = cache.apply("queens", () -> {
+                builds.incrementAndGet();
+                return Templates.queens(6);
+            }, dl -> {
+                lent.add(dl);
+                return DLX.count(dl);
+            });
+            assertEquals(4, count);
+        }
+
+        // A hit neither builds nor copies the structure.
+        assertEquals(1, builds.get());
+        assertSame(lent.get(0), lent.get(1));
+        assertSame(lent.get(0), lent.get(2));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void buildWhenAllInUse() {
+        var cache = new TemplateCache(10_000);
+        var builds = new AtomicInteger();
+        var key = List.of("queens", 5);
+
+        var count = cache.apply(key, () -> {
+            builds.incrementAndGet();
+            return Templates.queens(5);
+        }, outer -> cache.apply(key, () -> {
+            builds.incrementAndGet();
+            return Templates.queens(5);
+        }, inner -> {
+            assertNotSame(outer, inner);
+            return DLX.count(inner);
+        }));
+        assertEquals(10, count);
+        assertEquals(2, builds.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void costsAreRestored() {
+        var cache = new TemplateCache(10_000);
+        cache.queens(4, dl -> {
+            dl.setCost(0, 3);
+            return null;
+        });
+        assertEquals(0.0, cache.queens(4, dl -> dl.getCost(0)));
+    }
+
+    @Test
+    public void failedStructureIsDropped() {
+        var cache = new TemplateCache(10_000);
+        cache.queens(4, DLX::count);
+        assertThrows(IllegalStateException.class, () -> cache.queens(4, dl -> {
+            ((ColumnNode) dl.root.right).cover();
+            throw new IllegalStateException();
+        }));
+        assertEquals(0, cache.size());
+        assertEquals(2, (long) cache.queens(4, DLX::count));
+    }
+
+    @Test
+    public void keys() {
+        var cache = new TemplateCache(100_000);
+        cache.sudoku(2, 2, DancingLinks::rowCount);
+        cache.sudoku(2, 3, DancingLinks::rowCount);
+        cache.sudoku(3, 2, DancingLinks::rowCount);
+        cache.queens(4, DancingLinks::rowCount);
+        cache.polyomino(2, 2, List.of(TemplatesTest.DOMINO, TemplatesTest.DOMINO), false, DancingLinks::rowCount);
+        cache.polyomino(2, 2, List.of(TemplatesTest.DOMINO, TemplatesTest.DOMINO), true, DancingLinks::rowCount);
+        assertEquals(6, cache.size());
+
+        cache.polyomino(2, 2, List.of(TemplatesTest.DOMINO, TemplatesTest.DOMINO), false, DancingLinks::rowCount);
+        assertEquals(6, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.nodeCount());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        var queens3 = Templates.queens(3).nodeCount();
+        var queens4 = Templates.queens(4).nodeCount();
+        var queens5 = Templates.queens(5).nodeCount();
+
+        var cache = new TemplateCache(queens4 + queens5 + queens3 - 1);
+        cache.queens(4, DLX::count);
+        cache.queens(5, DLX::count);
+        assertEquals(queens4 + queens5, cache.nodeCount());
+
+        // Use queens(4), so queens(5) is the least recently used.
+        cache.queens(4, DLX::count);
+        cache.queens(3, DLX::count);
+        assertEquals(2, cache.size());
+        assertEquals(queens4 + queens3, cache.nodeCount());
+
+        // Structures larger than the bound are not cached.
+        assertEquals(729, (int) cache.sudoku(3, 3, DancingLinks::rowCount));
+        assertEquals(2, cache.size());
+        assertEquals(queens4 + queens3, cache.nodeCount());
+    }
+
+    @Test
+    public void invalidBound() {
+        assertThrows(IllegalArgumentException.class, () -> new TemplateCache(0));
+    }
+}
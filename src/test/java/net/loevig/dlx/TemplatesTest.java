@@ -0,0 +1,134 @@
+package net.loevig.dlx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplatesTest {
+
+    static final int[][] DOMINO = { { 0, 0 }, { 0, 1 } };
+
+    static final int[][] L_TROMINO = { { 0, 0 }, { 1, 0 }, { 1, 1 } };
+
+    static final int[][] S_TETROMINO = { { 0, 1 }, { 0, 2 }, { 1, 0 }, { 1, 1 } };
+
+    @Test
+    public void sudoku() {
+        var dl = Templates.sudoku(2, 2);
+        assertEquals(64, dl.rowCount());
+        assertEquals(64, dl.columnCount());
+        assertEquals(288, DLX.count(dl));
+    }
+
+    @Test
+    public void sudokuWithGivens() {
+        var dl = Templates.sudoku(2, 2);
+        var givens = new int[] {
+                Templates.sudokuRow(4, 0, 0, 1),
+                Templates.sudokuRow(4, 0, 1, 2),
+                Templates.sudokuRow(4, 1, 0, 3),
+                Templates.sudokuRow(4, 1, 2, 1),
+                Templates.sudokuRow(4, 2, 1, 1),
+                Templates.sudokuRow(4, 2, 3, 3),
+                Templates.sudokuRow(4, 3, 2, 2)
+        };
+        var solutions = Partition.solve(dl, new Job(0, givens));
+        assertEquals(1, solutions.size());
+
+        var board = new int[4][4];
+        for (var cell : solutions.get(0)) {
+            board[cell.getRow()][cell.getColumn()] = cell.getDigit();
+        }
+        for (int i = 0; i < 4; i++) {
+            var row = new HashSet<Integer>();
+            var column = new HashSet<Integer>();
+            for (int j = 0; j < 4; j++) {
+                row.add(board[i][j]);
+                column.add(board[j][i]);
+            }
+            assertEquals(4, row.size());
+            assertEquals(4, column.size());
+        }
+        assertEquals(1, board[0][0]);
+        assertEquals(1, board[3][3]);
+        assertEquals(4, board[2][2]);
+    }
+
+    @Test
+    public void rectangularSudoku() {
+        // 6 by 6 board with boxes of 2 rows and 3 columns.
+        var dl = Templates.sudoku(2, 3);
+        assertEquals(216, dl.rowCount());
+        assertTrue(DLX.findAny(dl, 0).isPresent());
+    }
+
+    @Test
+    public void queens() {
+        var expected = new long[] { 1, 0, 0, 2, 10, 4, 40, 92 };
+        for (int n = 1; n <= expected.length; n++) {
+            var dl = Templates.queens(n);
+            assertEquals(4 * n - 2, dl.secondaryCount());
+            assertEquals(expected[n - 1], DLX.count(dl));
+        }
+
+        var solution = DLX.solve(Templates.queens(4)).get(0);
+        var ranks = new HashSet<Integer>();
+        var files = new HashSet<Integer>();
+        var diagonals = new HashSet<Integer>();
+        var antiDiagonals = new HashSet<Integer>();
+        for (int i = 0; i < solution.size(); i++) {
+            var square = solution.get(i);
+            assertEquals(square.getRow() * 4 + square.getColumn(), solution.getRow(i));
+            assertTrue(ranks.add(square.getRow()));
+            assertTrue(files.add(square.getColumn()));
+            assertTrue(diagonals.add(square.getRow() - square.getColumn()));
+            assertTrue(antiDiagonals.add(square.getRow() + square.getColumn()));
+        }
+        assertEquals(4, ranks.size());
+        assertEquals(4, files.size());
+    }
+
+    @Test
+    public void polyominoOrientations() {
+        // Horizontal dominoes fit 2 * 2 places, vertical dominoes 1 * 3.
+        assertEquals(7, Templates.polyomino(3, 2, List.<int[][]>of(DOMINO), true).rowCount());
+        // Reflections of the L-tromino are also rotations.
+        assertEquals(4, Templates.polyomino(2, 2, List.<int[][]>of(L_TROMINO), false).rowCount());
+        assertEquals(4, Templates.polyomino(2, 2, List.<int[][]>of(L_TROMINO), true).rowCount());
+        // The S-tetromino has 2 rotations, and its reflection 2 more.
+        assertEquals(4, Templates.polyomino(3, 3, List.<int[][]>of(S_TETROMINO), false).rowCount());
+        assertEquals(8, Templates.polyomino(3, 3, List.<int[][]>of(S_TETROMINO), true).rowCount());
+    }
+
+    @Test
+    public void polyominoTiling() {
+        // Two tilings of a 2 by 2 board, with two ways to assign the dominoes.
+        var dl = Templates.polyomino(2, 2, List.of(DOMINO, DOMINO), false);
+        assertEquals(4, DLX.count(dl));
+
+        // An L-tromino and a domino cannot tile a 2 by 2 board.
+        assertEquals(0, DLX.count(Templates.polyomino(2, 2, List.of(L_TROMINO, DOMINO), false)));
+
+        var solution = DLX.solve(Templates.polyomino(2, 3, List.of(L_TROMINO, L_TROMINO), true)).get(0);
+        var cells = new HashSet<Integer>();
+        for (var placement : solution) {
+            for (int cell : placement.getCells()) {
+                assertTrue(cells.add(cell));
+            }
+        }
+        assertEquals(6, cells.size());
+    }
+
+    @Test
+    public void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> Templates.sudoku(0, 2));
+        assertThrows(IllegalArgumentException.class, () -> Templates.queens(0));
+        assertThrows(IllegalArgumentException.class, () -> Templates.polyomino(2, 2, List.of(), false));
+        assertThrows(IllegalArgumentException.class, () -> {
+            Templates.polyomino(2, 2, List.<int[][]>of(new int[][] { { 0, 0 }, { 0, 0 } }), false);
+        });
+    }
+}